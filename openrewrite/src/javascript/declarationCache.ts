@@ -0,0 +1,269 @@
+import * as ts from "typescript";
+import * as fs from "node:fs";
+import path from "node:path";
+import {createHash} from "node:crypto";
+
+const FORMAT_VERSION = 2;
+const DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+const NODE_MODULES = `${path.sep}node_modules${path.sep}`;
+
+interface PackageInfo {
+    dir: string;
+    name: string;
+    version: string;
+    integrity: string;
+    key: string;
+}
+
+interface PackageEntry {
+    name: string;
+    version: string;
+    integrity: string;
+    files: Record<string, string>;
+}
+
+interface PersistedFile {
+    size: number;
+    used: number;
+}
+
+/**
+ * A persisted cache of the declaration files read while parsing, such as `lib.*.d.ts` and the
+ * declarations of `node_modules/@types` packages. A new server process reads the files of a
+ * package from a single file instead of from many small ones. Only the text of the files is
+ * cached, so the compiler still parses and binds them in every process.
+ *
+ * Only packages installed under `node_modules` whose integrity hash is recorded in the lockfile of
+ * the project are cached, because only they cannot change without the lockfile changing. Declaration
+ * files of the project itself, of linked workspace packages and of packages that are not in a
+ * lockfile are always read from disk. The files are grouped by the package they belong to, and every
+ * package is persisted in a file of its own, which is only read once the package is first used and
+ * only written when new files of it were read. A package is identified by its name, version and
+ * integrity hash. The least recently used packages are evicted once the cache outgrows its size
+ * bound. The cache is versioned with both its own format and the TypeScript version, because the set
+ * of library files depends on the compiler.
+ */
+export class DeclarationCache {
+    private readonly dir: string;
+    private readonly persisted = new Map<string, PersistedFile>();
+    private readonly packages = new Map<string, PackageEntry>();
+    private readonly packageByDir = new Map<string, PackageInfo | null>();
+    private readonly lockfiles = new Map<string, Map<string, string> | null>();
+    private readonly dirty = new Set<string>();
+
+    constructor(dir: string, private readonly maxBytes: number = DEFAULT_MAX_BYTES) {
+        this.dir = path.join(dir, `declarations-v${FORMAT_VERSION}-ts${ts.version}`);
+        try {
+            for (const name of fs.readdirSync(this.dir)) {
+                if (name.endsWith('.json')) {
+                    const stats = fs.statSync(path.join(this.dir, name));
+                    this.persisted.set(name.slice(0, -'.json'.length), {size: stats.size, used: stats.mtimeMs});
+                }
+            }
+        } catch (e) {
+            // no cache yet, which is built while parsing
+        }
+    }
+
+    static isDeclarationFile(fileName: string): boolean {
+        return /\.d\.[cm]?ts$/.test(fileName);
+    }
+
+    readFile(fileName: string): string | undefined {
+        const entry = DeclarationCache.isDeclarationFile(fileName) ? this.entryFor(fileName) : undefined;
+        if (!entry) {
+            return ts.sys.readFile(fileName);
+        }
+        const [info, files] = entry;
+        const relative = path.relative(info.dir, fileName);
+        let text: string | undefined = files[relative];
+        if (text === undefined) {
+            text = ts.sys.readFile(fileName);
+            if (text !== undefined) {
+                files[relative] = text;
+                this.dirty.add(info.key);
+            }
+        }
+        return text;
+    }
+
+    fileExists(fileName: string): boolean {
+        if (DeclarationCache.isDeclarationFile(fileName)) {
+            const entry = this.entryFor(fileName);
+            if (entry && entry[1][path.relative(entry[0].dir, fileName)] !== undefined) {
+                return true;
+            }
+        }
+        return ts.sys.fileExists(fileName);
+    }
+
+    /**
+     * Write the packages that declaration files were read from disk for since they were loaded or last
+     * saved, and evict the least recently used packages beyond the size bound.
+     */
+    save() {
+        if (this.dirty.size === 0) {
+            return;
+        }
+        try {
+            fs.mkdirSync(this.dir, {recursive: true});
+            for (const key of this.dirty) {
+                const file = this.fileOf(key);
+                const temp = `${file}.${process.pid}.tmp`;
+                const json = JSON.stringify(this.packages.get(key));
+                fs.writeFileSync(temp, json);
+                fs.renameSync(temp, file);
+                this.persisted.set(key, {size: Buffer.byteLength(json), used: Date.now()});
+            }
+            this.dirty.clear();
+            this.evict();
+        } catch (e) {
+            // the cache is an optimization only, so parsing goes on without it
+        }
+    }
+
+    private evict() {
+        let size = 0;
+        for (const file of this.persisted.values()) {
+            size += file.size;
+        }
+        if (size <= this.maxBytes) {
+            return;
+        }
+        const leastRecentlyUsed = [...this.persisted.entries()].sort((a, b) => a[1].used - b[1].used);
+        for (const [key, file] of leastRecentlyUsed) {
+            if (size <= this.maxBytes) {
+                break;
+            }
+            try {
+                fs.unlinkSync(this.fileOf(key));
+            } catch (e) {
+                // evicted by another process already
+            }
+            this.persisted.delete(key);
+            size -= file.size;
+        }
+    }
+
+    private fileOf(key: string): string {
+        return path.join(this.dir, `${key}.json`);
+    }
+
+    private entryFor(fileName: string): [PackageInfo, Record<string, string>] | undefined {
+        const info = this.packageOf(path.dirname(fileName));
+        if (!info) {
+            return undefined;
+        }
+        let entry = this.packages.get(info.key);
+        if (!entry) {
+            entry = this.load(info) ?? {name: info.name, version: info.version, integrity: info.integrity, files: {}};
+            this.packages.set(info.key, entry);
+        }
+        return [info, entry.files];
+    }
+
+    private load(info: PackageInfo): PackageEntry | undefined {
+        const file = this.persisted.get(info.key);
+        if (!file) {
+            return undefined;
+        }
+        try {
+            const entry = JSON.parse(fs.readFileSync(this.fileOf(info.key), 'utf8')) as PackageEntry;
+            if (entry.name !== info.name || entry.version !== info.version || entry.integrity !== info.integrity) {
+                return undefined;
+            }
+            // the modification time records when the package was last used, for eviction by later processes
+            const now = new Date();
+            fs.utimesSync(this.fileOf(info.key), now, now);
+            file.used = now.getTime();
+            return entry;
+        } catch (e) {
+            // a package that cannot be read, which is cached again while parsing
+            return undefined;
+        }
+    }
+
+    private packageOf(dir: string): PackageInfo | null {
+        const known = this.packageByDir.get(dir);
+        if (known !== undefined) {
+            return known;
+        }
+        let info: PackageInfo | null = null;
+        const packageJson = ts.sys.readFile(path.join(dir, 'package.json'));
+        if (packageJson !== undefined) {
+            try {
+                const manifest = JSON.parse(packageJson);
+                const integrity = this.lockedIntegrity(dir);
+                if (typeof manifest.name === 'string' && typeof manifest.version === 'string' && integrity) {
+                    info = {
+                        dir,
+                        name: manifest.name,
+                        version: manifest.version,
+                        integrity,
+                        key: createHash('sha256')
+                            .update(`${manifest.name}@${manifest.version}\0${integrity}`)
+                            .digest('hex')
+                            .substring(0, 32)
+                    };
+                }
+            } catch (e) {
+                // not a package manifest, so the files are read without the cache
+            }
+        } else {
+            const parent = path.dirname(dir);
+            info = parent !== dir ? this.packageOf(parent) : null;
+        }
+        this.packageByDir.set(dir, info);
+        return info;
+    }
+
+    /**
+     * The integrity hash of the installed package in `dir` as recorded by npm, either in the hidden
+     * lockfile of `node_modules` or in the `package-lock.json` of the project. Packages outside of
+     * `node_modules`, including those reached through a symbolic link from it, have none.
+     */
+    private lockedIntegrity(dir: string): string | undefined {
+        const nodeModules = dir.indexOf(NODE_MODULES);
+        if (nodeModules < 0 || !DeclarationCache.realPath(dir).includes(NODE_MODULES)) {
+            return undefined;
+        }
+        const root = dir.substring(0, nodeModules);
+        let locked = this.lockfiles.get(root);
+        if (locked === undefined) {
+            locked = DeclarationCache.readLockfile(path.join(root, 'node_modules', '.package-lock.json')) ??
+                DeclarationCache.readLockfile(path.join(root, 'package-lock.json'));
+            this.lockfiles.set(root, locked);
+        }
+        return locked?.get(path.relative(root, dir).split(path.sep).join('/'));
+    }
+
+    private static realPath(dir: string): string {
+        try {
+            return fs.realpathSync(dir);
+        } catch (e) {
+            return dir;
+        }
+    }
+
+    private static readLockfile(file: string): Map<string, string> | null {
+        const text = ts.sys.readFile(file);
+        if (text === undefined) {
+            return null;
+        }
+        try {
+            const packages = JSON.parse(text).packages as Record<string, { integrity?: string }> | undefined;
+            if (!packages) {
+                return null;
+            }
+            const integrities = new Map<string, string>();
+            for (const [location, locked] of Object.entries(packages)) {
+                if (typeof locked.integrity === 'string') {
+                    integrities.set(location, locked.integrity);
+                }
+            }
+            return integrities;
+        } catch (e) {
+            return null;
+        }
+    }
+}
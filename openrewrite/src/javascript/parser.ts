@@ -24,7 +24,8 @@ import {
     SourceFile
 } from "../core";
 import {binarySearch, compareTextSpans, getNextSibling, getPreviousSibling, TextSpan, hasFlowAnnotation, checkSyntaxErrors, isValidSurrogateRange, isStatement} from "./parserUtils";
-import {JavaScriptTypeMapping} from "./typeMapping";
+import {JavaScriptTypeMapping, TypeHandles} from "./typeMapping";
+import {DeclarationCache} from "./declarationCache";
 import path from "node:path";
 import {ExpressionStatement, TypeTreeExpression} from ".";
 
@@ -33,9 +34,20 @@ export class JavaScriptParser extends Parser {
     private readonly compilerOptions: ts.CompilerOptions;
     private readonly sourceFileCache: Map<string, ts.SourceFile> = new Map();
     private oldProgram: ts.Program | undefined;
-
-    constructor() {
+    private readonly typeHandles: TypeHandles | undefined;
+    private readonly declarationCache: DeclarationCache | undefined;
+
+    /**
+     * @param syntaxOnly when true, no type checker is created and the trees carry no type attribution.
+     * Imports are not resolved either, so only the input files themselves end up in the program.
+     * @param lazyTypes when true, types are represented by handles which are only attributed once
+     * they are requested through {@link resolveTypes}.
+     * @param declarationCacheDir when set, the declaration files of the compiler and of dependencies
+     * are read through a {@link DeclarationCache} persisted in this directory.
+     */
+    constructor(private readonly syntaxOnly: boolean = false, lazyTypes: boolean = false, declarationCacheDir?: string) {
         super();
+        this.declarationCache = declarationCacheDir && !syntaxOnly ? new DeclarationCache(declarationCacheDir) : undefined;
         this.compilerOptions = {
             target: ts.ScriptTarget.Latest,
             module: ts.ModuleKind.CommonJS,
@@ -44,23 +56,47 @@ export class JavaScriptParser extends Parser {
             experimentalDecorators: true,
             emitDecoratorMetadata: true
         };
+        if (syntaxOnly) {
+            this.compilerOptions.noResolve = true;
+            this.compilerOptions.noLib = true;
+            this.compilerOptions.types = [];
+        } else if (lazyTypes) {
+            this.typeHandles = new TypeHandles();
+        }
     }
 
     reset(): this {
         this.sourceFileCache.clear();
         this.oldProgram = undefined;
+        this.typeHandles?.clear();
         return this;
     }
 
+    /**
+     * Attribute the types behind the given handles, which were placed in the trees of a parser
+     * with lazy type attribution. Handles stay resolvable until the parser is reset.
+     *
+     * @throws Error if a handle is not known to this parser, e.g. because it was reset since.
+     */
+    resolveTypes(handles: string[]): (JavaType | null)[] {
+        if (!this.typeHandles) {
+            if (handles.length > 0) {
+                throw new Error(`Unknown type handle ${handles[0]}, types are attributed while parsing`);
+            }
+            return [];
+        }
+        return this.typeHandles.resolve(handles);
+    }
+
     parseProgramSources(program: ts.Program, relativeTo: string | null, ctx: ExecutionContext): Iterable<SourceFile> {
-        const typeChecker = program.getTypeChecker();
+        const typeChecker = this.syntaxOnly ? undefined : program.getTypeChecker();
 
         const result: SourceFile[] = [];
         for (const filePath of program.getRootFileNames()) {
             const sourceFile = program.getSourceFile(filePath)!;
             const input = new ParserInput(filePath, null, false, () => Buffer.from(ts.sys.readFile(filePath)!));
             try {
-                const parsed = new JavaScriptParserVisitor(this, sourceFile, typeChecker).visit(sourceFile) as SourceFile;
+                const parsed = new JavaScriptParserVisitor(this, sourceFile, typeChecker, this.typeHandles, program).visit(sourceFile) as SourceFile;
                 result.push(parsed.withSourcePath(relativeTo != null ? path.relative(relativeTo, input.path) : input.path));
             } catch (error) {
                 result.push(ParseError.build(this, input, relativeTo, ctx, error instanceof Error ? error : new Error('Parser threw unknown error: ' + error), null));
@@ -103,7 +139,7 @@ export class JavaScriptParser extends Parser {
                 sourceText = input.source().toString('utf8');
             } else {
                 // For dependency files
-                sourceText = ts.sys.readFile(fileName);
+                sourceText = this.declarationCache ? this.declarationCache.readFile(fileName) : ts.sys.readFile(fileName);
             }
 
             if (sourceText !== undefined) {
@@ -121,7 +157,8 @@ export class JavaScriptParser extends Parser {
 
         // Override fileExists
         host.fileExists = (fileName) => {
-            return inputFiles.has(fileName) || ts.sys.fileExists(fileName);
+            return inputFiles.has(fileName) ||
+                (this.declarationCache ? this.declarationCache.fileExists(fileName) : ts.sys.fileExists(fileName));
         };
 
         // Override readFile
@@ -129,7 +166,7 @@ export class JavaScriptParser extends Parser {
             const input = inputFiles.get(fileName);
             return input
                 ? input.source().toString('utf8')
-                : ts.sys.readFile(fileName);
+                : this.declarationCache ? this.declarationCache.readFile(fileName) : ts.sys.readFile(fileName);
         };
 
         // Create a new Program, passing the oldProgram for incremental parsing
@@ -137,8 +174,9 @@ export class JavaScriptParser extends Parser {
 
         // Update the oldProgram reference
         this.oldProgram = program;
+        this.declarationCache?.save();
 
-        const typeChecker = program.getTypeChecker();
+        const typeChecker = this.syntaxOnly ? undefined : program.getTypeChecker();
 
         const result: SourceFile[] = [];
         for (const input of inputFiles.values()) {
@@ -154,7 +192,7 @@ export class JavaScriptParser extends Parser {
                 continue;
             }
 
-            const syntaxErrors = checkSyntaxErrors(program, sourceFile);
+            const syntaxErrors = checkSyntaxErrors(program, sourceFile, this.syntaxOnly);
             if (syntaxErrors.length > 0) {
                 let errors = syntaxErrors.map(e => `${e[0]} [${e[1]}]`).join('; ');
                 result.push(ParseError.build(this, input, relativeTo, ctx, new SyntaxError(`Compiler error(s) for ${sourceFile.fileName}: ${errors}`), null))
@@ -162,7 +200,7 @@ export class JavaScriptParser extends Parser {
             }
 
             try {
-                const parsed = new JavaScriptParserVisitor(this, sourceFile, typeChecker).visit(sourceFile) as SourceFile;
+                const parsed = new JavaScriptParserVisitor(this, sourceFile, typeChecker, this.typeHandles, program).visit(sourceFile) as SourceFile;
                 result.push(parsed.withSourcePath(relativeTo != null ? path.relative(relativeTo, input.path) : input.path));
             } catch (error) {
                 result.push(ParseError.build(this, input, relativeTo, ctx, error instanceof Error ? error : new Error('Parser threw unknown error: ' + error), null));
@@ -185,9 +223,43 @@ export class JavaScriptParser extends Parser {
 }
 
 export namespace JavaScriptParser {
+    /**
+     * Set by the Java side when starting the server, so that every parser it builds skips type attribution.
+     */
+    export const SYNTAX_ONLY_ENV = "REWRITE_JAVASCRIPT_SYNTAX_ONLY";
+
+    /**
+     * Set by the Java side when starting the server, so that every parser it builds attributes types on demand.
+     */
+    export const LAZY_TYPES_ENV = "REWRITE_JAVASCRIPT_LAZY_TYPES";
+
+    /**
+     * Set by the Java side to a directory of its installation, which holds the persisted declaration cache.
+     */
+    export const DECLARATION_CACHE_ENV = "REWRITE_JAVASCRIPT_DECLARATION_CACHE";
+
     export class Builder extends Parser.Builder {
+        private _syntaxOnly: boolean = process.env[SYNTAX_ONLY_ENV] === "true";
+        private _lazyTypes: boolean = process.env[LAZY_TYPES_ENV] === "true";
+        private _declarationCacheDir: string | undefined = process.env[DECLARATION_CACHE_ENV];
+
+        syntaxOnly(syntaxOnly: boolean = true): this {
+            this._syntaxOnly = syntaxOnly;
+            return this;
+        }
+
+        lazyTypes(lazyTypes: boolean = true): this {
+            this._lazyTypes = lazyTypes;
+            return this;
+        }
+
+        declarationCache(dir: string | undefined): this {
+            this._declarationCacheDir = dir;
+            return this;
+        }
+
         build(): JavaScriptParser {
-            return new JavaScriptParser();
+            return new JavaScriptParser(this._syntaxOnly, this._lazyTypes, this._declarationCacheDir);
         }
     }
 }
@@ -203,13 +275,15 @@ for (const [key, value] of Object.entries(ts.SyntaxKind)) {
 
 // noinspection JSUnusedGlobalSymbols
 export class JavaScriptParserVisitor {
-    private readonly typeMapping: JavaScriptTypeMapping;
+    private readonly typeMapping: JavaScriptTypeMapping | undefined;
 
     constructor(
         private readonly parser: Parser,
         private readonly sourceFile: ts.SourceFile,
-        typeChecker: ts.TypeChecker) {
-        this.typeMapping = new JavaScriptTypeMapping(typeChecker);
+        typeChecker: ts.TypeChecker | undefined,
+        private readonly typeHandles?: TypeHandles,
+        private readonly program?: ts.Program) {
+        this.typeMapping = typeChecker ? new JavaScriptTypeMapping(typeChecker) : undefined;
     }
 
     visit = (node: ts.Node): any => {
@@ -3933,19 +4007,22 @@ export class JavaScriptParserVisitor {
     }
 
     private mapType(node: ts.Node): JavaType | null {
-        return this.typeMapping.type(node);
+        if (this.typeHandles && this.program) {
+            return this.typeHandles.handle(node, this.program);
+        }
+        return this.typeMapping ? this.typeMapping.type(node) : null;
     }
 
     private mapPrimitiveType(node: ts.Node): JavaType.Primitive {
-        return this.typeMapping.primitiveType(node);
+        return this.typeMapping ? this.typeMapping.primitiveType(node) : JavaType.Primitive.of(JavaType.PrimitiveKind.None);
     }
 
     private mapVariableType(node: ts.NamedDeclaration): JavaType.Variable | null {
-        return this.typeMapping.variableType(node);
+        return this.typeMapping ? this.typeMapping.variableType(node) : null;
     }
 
     private mapMethodType(node: ts.Node): JavaType.Method | null {
-        return this.typeMapping.methodType(node);
+        return this.typeMapping ? this.typeMapping.methodType(node) : null;
     }
 
     private mapCommaSeparatedList<T extends J.J>(nodes: readonly ts.Node[]): JContainer<T> {
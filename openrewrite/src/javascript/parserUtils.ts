@@ -345,8 +345,9 @@ export function hasFlowAnnotation(sourceFile: ts.SourceFile) {
     return false;
 }
 
-export function checkSyntaxErrors(program: ts.Program, sourceFile: ts.SourceFile) {
-    const diagnostics = ts.getPreEmitDiagnostics(program, sourceFile);
+export function checkSyntaxErrors(program: ts.Program, sourceFile: ts.SourceFile, syntaxOnly: boolean = false) {
+    // the pre-emit diagnostics include the semantic ones, which require the type checker
+    const diagnostics = syntaxOnly ? program.getSyntacticDiagnostics(sourceFile) : ts.getPreEmitDiagnostics(program, sourceFile);
     // checking Parsing and Syntax Errors
     let syntaxErrors : [errorMsg: string, errorCode: number][] = [];
     if (diagnostics.length > 0) {
@@ -0,0 +1,52 @@
+import {constants, deflateSync} from "node:zlib";
+
+export const COMPRESSION_CODEC = "deflate";
+
+const CBOR_NULL = 0xf6;
+const CBOR_BYTE_STRING = 0x40;
+
+/**
+ * The server side of the "compression" request, with which a client asks to have the trees sent on its
+ * connection deflated once they serialize to at least a threshold of bytes. A handler of the request
+ * answers whether it {@link negotiate}d a compression, and then writes every tree of the connection
+ * through {@link frame}: a `null` marker followed by the tree as is, or a byte string holding the
+ * deflated tree with a zlib header.
+ */
+export class PayloadCompression {
+  private constructor(readonly threshold: number) {}
+
+  /**
+   * @return the compression of a connection, or `undefined` for a codec this server does not support.
+   */
+  static negotiate(codec: string, threshold: number): PayloadCompression | undefined {
+    return codec === COMPRESSION_CODEC && threshold > 0 ? new PayloadCompression(threshold) : undefined;
+  }
+
+  /**
+   * Frame a tree which was already serialized to CBOR.
+   */
+  frame(encodedTree: Uint8Array): Buffer {
+    if (encodedTree.length < this.threshold) {
+      return Buffer.concat([Buffer.of(CBOR_NULL), encodedTree]);
+    }
+    const deflated = deflateSync(encodedTree, {level: constants.Z_BEST_SPEED});
+    return Buffer.concat([byteStringHeader(deflated.length), deflated]);
+  }
+}
+
+function byteStringHeader(length: number): Buffer {
+  if (length < 24) {
+    return Buffer.of(CBOR_BYTE_STRING | length);
+  } else if (length < 0x100) {
+    return Buffer.of(CBOR_BYTE_STRING | 24, length);
+  } else if (length < 0x10000) {
+    const header = Buffer.alloc(3);
+    header[0] = CBOR_BYTE_STRING | 25;
+    header.writeUInt16BE(length, 1);
+    return header;
+  }
+  const header = Buffer.alloc(5);
+  header[0] = CBOR_BYTE_STRING | 26;
+  header.writeUInt32BE(length, 1);
+  return header;
+}
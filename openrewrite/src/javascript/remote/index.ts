@@ -1,3 +1,4 @@
 export * from './register';
 export * from './receiver';
 export * from './sender';
+export * from './compression';
@@ -1,5 +1,6 @@
 import * as ts from "typescript";
 import { JavaType } from "../java";
+import { randomBytes } from "node:crypto";
 
 export class JavaScriptTypeMapping {
   private readonly typeCache: Map<string, JavaType> = new Map();
@@ -140,3 +141,89 @@ export class JavaScriptTypeMapping {
     return JavaType.Unknown.INSTANCE;
   }
 }
+
+/**
+ * Prefix of the fully qualified name of the placeholder types that stand in for types which are
+ * attributed on demand.
+ */
+export const TYPE_HANDLE_PREFIX = "@type-handle:";
+
+/**
+ * Registry of the nodes whose types are attributed on demand rather than while parsing. Each node is
+ * represented in the tree by a placeholder class type whose fully qualified name is the handle, which
+ * the client can later resolve in batches through {@link resolve}. The nodes, and with them their
+ * programs, are kept until the registry is cleared, so every handle of a session stays resolvable.
+ * Handles are scoped to the session, so a handle of an earlier session or of another process is
+ * rejected rather than resolved against the wrong node.
+ */
+export class TypeHandles {
+  private readonly programs: RegisteredProgram[] = [];
+  private session = randomBytes(4).toString("hex");
+
+  handle(node: ts.Node, program: ts.Program): JavaType {
+    let current = this.programs[this.programs.length - 1];
+    if (current?.program !== program) {
+      current = {program, nodes: []};
+      this.programs.push(current);
+    }
+    const handle = `${TYPE_HANDLE_PREFIX}${this.session}:${this.programs.length - 1}:${current.nodes.length}`;
+    current.nodes.push(node);
+    return new JavaType.Class(0, handle, JavaType.Class.Kind.Class);
+  }
+
+  /**
+   * @throws Error if a handle was not handed out in the current session.
+   */
+  resolve(handles: string[]): (JavaType | null)[] {
+    return handles.map((handle) => {
+      const [session, programId, nodeId] = handle.substring(TYPE_HANDLE_PREFIX.length).split(":");
+      const registered = session === this.session ? this.programs[Number(programId)] : undefined;
+      const node = registered?.nodes[Number(nodeId)];
+      if (!registered || !node) {
+        throw new Error(`Unknown type handle ${handle}`);
+      }
+      if (!registered.mapping) {
+        registered.mapping = new JavaScriptTypeMapping(registered.program.getTypeChecker());
+      }
+      return registered.mapping.type(node);
+    });
+  }
+
+  clear() {
+    this.programs.length = 0;
+    this.session = randomBytes(4).toString("hex");
+  }
+}
+
+interface RegisteredProgram {
+  readonly program: ts.Program;
+  readonly nodes: ts.Node[];
+  mapping?: JavaScriptTypeMapping;
+}
+
+/**
+ * Flatten a resolved type into the tokens sent in response to a "resolve-types" request:
+ * `N` for no type, `?` for an unknown type, `P` followed by the primitive kind, `C` followed by
+ * the fully qualified name of a class, and `U` followed by the number of types in a union and
+ * then the types themselves.
+ */
+export function typeTokens(
+  type: JavaType | null,
+  tokens: (string | number)[] = [],
+  inUnion: boolean = false
+): (string | number)[] {
+  if (type == null) {
+    tokens.push("N");
+  } else if (type instanceof JavaType.Primitive) {
+    tokens.push("P", type.kind);
+  } else if (type instanceof JavaType.Class) {
+    tokens.push("C", type.fullyQualifiedName);
+  } else if (type instanceof JavaType.Union && !inUnion) {
+    // the members of a TypeScript union are never unions themselves, which also keeps cyclic types finite
+    tokens.push("U", type.types.length);
+    type.types.forEach((t) => typeTokens(t, tokens, true));
+  } else {
+    tokens.push("?");
+  }
+  return tokens;
+}
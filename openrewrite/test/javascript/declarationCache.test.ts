@@ -0,0 +1,122 @@
+import { describe, expect, test } from "@jest/globals";
+import * as fs from "node:fs";
+import * as os from "node:os";
+import path from "node:path";
+import * as ts from "typescript";
+import { DeclarationCache } from "../../src/javascript/declarationCache";
+
+function writePackage(dir: string, version: string, declarations: string) {
+  fs.mkdirSync(dir, { recursive: true });
+  fs.writeFileSync(path.join(dir, "package.json"), JSON.stringify({ name: path.basename(dir), version }));
+  fs.writeFileSync(path.join(dir, "index.d.ts"), declarations);
+}
+
+function writeLockfile(root: string, integrities: Record<string, string>) {
+  const packages: Record<string, { integrity: string }> = {};
+  for (const [location, integrity] of Object.entries(integrities)) {
+    packages[location] = { integrity };
+  }
+  fs.writeFileSync(path.join(root, "package-lock.json"), JSON.stringify({ lockfileVersion: 3, packages }));
+}
+
+function persistedPackages(cacheDir: string): string[] {
+  return fs.readdirSync(path.join(cacheDir, `declarations-v2-ts${ts.version}`));
+}
+
+describe("DeclarationCache", () => {
+  test("serves declarations of an unchanged package from the persisted cache", () => {
+    const root = fs.mkdtempSync(path.join(os.tmpdir(), "declaration-cache-"));
+    const packageDir = path.join(root, "node_modules", "@types", "lib");
+    const cacheDir = path.join(root, "cache");
+    writePackage(packageDir, "1.0.0", "declare const a: number;");
+    writeLockfile(root, { "node_modules/@types/lib": "sha512-first" });
+
+    const cache = new DeclarationCache(cacheDir);
+    expect(cache.readFile(path.join(packageDir, "index.d.ts"))).toBe("declare const a: number;");
+    cache.save();
+
+    // the persisted text is served as long as the lockfile pins the same package
+    fs.writeFileSync(path.join(packageDir, "index.d.ts"), "declare const b: string;");
+    expect(new DeclarationCache(cacheDir).readFile(path.join(packageDir, "index.d.ts"))).toBe("declare const a: number;");
+
+    writePackage(packageDir, "2.0.0", "declare const c: boolean;");
+    expect(new DeclarationCache(cacheDir).readFile(path.join(packageDir, "index.d.ts"))).toBe("declare const c: boolean;");
+  });
+
+  test("reads declarations that are not pinned by a lockfile from disk", () => {
+    const root = fs.mkdtempSync(path.join(os.tmpdir(), "declaration-cache-"));
+    const unlocked = path.join(root, "node_modules", "unlocked");
+    const project = path.join(root, "packages", "app");
+    const linked = path.join(root, "node_modules", "app");
+    const cacheDir = path.join(root, "cache");
+    writePackage(unlocked, "1.0.0", "declare const a: number;");
+    writePackage(project, "1.0.0", "declare const b: number;");
+    fs.symlinkSync(project, linked, "dir");
+    writeLockfile(root, {});
+
+    const cache = new DeclarationCache(cacheDir);
+    for (const dir of [unlocked, project, linked]) {
+      cache.readFile(path.join(dir, "index.d.ts"));
+    }
+    cache.save();
+    expect(fs.existsSync(path.join(cacheDir, `declarations-v2-ts${ts.version}`))).toBe(false);
+
+    fs.writeFileSync(path.join(project, "index.d.ts"), "declare const edited: number;");
+    fs.unlinkSync(path.join(unlocked, "index.d.ts"));
+    const later = new DeclarationCache(cacheDir);
+    expect(later.readFile(path.join(linked, "index.d.ts"))).toBe("declare const edited: number;");
+    expect(later.fileExists(path.join(unlocked, "index.d.ts"))).toBe(false);
+  });
+
+  test("keys packages on the integrity recorded in the lockfile", () => {
+    const root = fs.mkdtempSync(path.join(os.tmpdir(), "declaration-cache-"));
+    const packageDir = path.join(root, "node_modules", "@types", "lib");
+    const cacheDir = path.join(root, "cache");
+    writePackage(packageDir, "1.0.0", "declare const a: number;");
+    writeLockfile(root, { "node_modules/@types/lib": "sha512-first" });
+
+    const cache = new DeclarationCache(cacheDir);
+    cache.readFile(path.join(packageDir, "index.d.ts"));
+    cache.save();
+
+    // reinstalled with the same name and version, but different content
+    writePackage(packageDir, "1.0.0", "declare const b: string;");
+    writeLockfile(root, { "node_modules/@types/lib": "sha512-second" });
+    expect(new DeclarationCache(cacheDir).readFile(path.join(packageDir, "index.d.ts"))).toBe("declare const b: string;");
+  });
+
+  test("persists every package in a file of its own and evicts the least recently used", () => {
+    const root = fs.mkdtempSync(path.join(os.tmpdir(), "declaration-cache-"));
+    const first = path.join(root, "node_modules", "lib-a");
+    const second = path.join(root, "node_modules", "lib-b");
+    const cacheDir = path.join(root, "cache");
+    writePackage(first, "1.0.0", "declare const a: number;");
+    writePackage(second, "1.0.0", "declare const b: number;");
+    writeLockfile(root, {
+      "node_modules/lib-a": "sha512-a",
+      "node_modules/lib-b": "sha512-b",
+      "node_modules/lib-c": "sha512-c"
+    });
+
+    const unbounded = new DeclarationCache(cacheDir);
+    unbounded.readFile(path.join(first, "index.d.ts"));
+    unbounded.save();
+    const firstFile = path.join(cacheDir, `declarations-v2-ts${ts.version}`, persistedPackages(cacheDir)[0]);
+    fs.utimesSync(firstFile, new Date(0), new Date(0));
+    unbounded.readFile(path.join(second, "index.d.ts"));
+    unbounded.save();
+    expect(persistedPackages(cacheDir)).toHaveLength(2);
+    const entrySize = fs.statSync(firstFile).size;
+
+    const bounded = new DeclarationCache(cacheDir, entrySize * 2);
+    const third = path.join(root, "node_modules", "lib-c");
+    writePackage(third, "1.0.0", "declare const c: number;");
+    bounded.readFile(path.join(third, "index.d.ts"));
+    bounded.save();
+
+    // the first package was used longest ago
+    expect(persistedPackages(cacheDir)).toHaveLength(2);
+    fs.writeFileSync(path.join(first, "index.d.ts"), "declare const changed: number;");
+    expect(new DeclarationCache(cacheDir).readFile(path.join(first, "index.d.ts"))).toBe("declare const changed: number;");
+  });
+});
@@ -1,6 +1,7 @@
 import {InMemoryExecutionContext, ParserInput} from '../../../dist/src/core';
 import {JavaScriptParser} from "../../../dist/src/javascript";
 import * as JS from "../../../dist/src/javascript";
+import * as J from "../../../dist/src/java/tree";
 
 describe('Parser API', () => {
     const parser = JavaScriptParser.builder().build();
@@ -20,4 +21,47 @@ describe('Parser API', () => {
         /* c1*/  /*c2 */const d = 1;`) as Iterable<JS.CompilationUnit>;
         expect(sourceFile).toBeDefined();
     });
+
+    test('syntaxOnly', () => {
+        const [sourceFile] = JavaScriptParser.builder().syntaxOnly().build().parseInputs(
+          [new ParserInput('foo.ts', null, true, () => Buffer.from('"a" + 1', 'utf8'))],
+          null,
+          new InMemoryExecutionContext()
+        ) as Iterable<JS.CompilationUnit>;
+        expect(sourceFile).toBeInstanceOf(JS.CompilationUnit);
+        const binary = (sourceFile.statements[0] as JS.ExpressionStatement).expression as J.Binary;
+        expect(binary.type).toBeNull();
+    });
+
+    test('lazyTypes', () => {
+        const lazyParser = JavaScriptParser.builder().lazyTypes().build();
+        const [sourceFile] = lazyParser.parseInputs(
+          [new ParserInput('foo.ts', null, true, () => Buffer.from('"a" + 1', 'utf8'))],
+          null,
+          new InMemoryExecutionContext()
+        ) as Iterable<JS.CompilationUnit>;
+        const binary = (sourceFile.statements[0] as JS.ExpressionStatement).expression as J.Binary;
+        const handle = (binary.type as J.JavaType.Class).fullyQualifiedName;
+        const [resolved] = lazyParser.resolveTypes([handle]);
+        expect(resolved).toBeInstanceOf(J.JavaType.Primitive);
+        expect(() => lazyParser.reset().resolveTypes([handle])).toThrow(/Unknown type handle/);
+    });
+
+    test('lazyTypes of earlier files', () => {
+        const lazyParser = JavaScriptParser.builder().lazyTypes().build();
+        const handles = [];
+        for (let i = 0; i < 6; i++) {
+            const [sourceFile] = lazyParser.parseInputs(
+              [new ParserInput(`foo${i}.ts`, null, true, () => Buffer.from(`"a" + ${i}`, 'utf8'))],
+              null,
+              new InMemoryExecutionContext()
+            ) as Iterable<JS.CompilationUnit>;
+            const binary = (sourceFile.statements[0] as JS.ExpressionStatement).expression as J.Binary;
+            handles.push((binary.type as J.JavaType.Class).fullyQualifiedName);
+        }
+        const resolved = lazyParser.resolveTypes(handles);
+        expect(resolved).toHaveLength(6);
+        resolved.forEach(type => expect(type).toBeInstanceOf(J.JavaType.Primitive));
+        expect(() => JavaScriptParser.builder().lazyTypes().build().resolveTypes([handles[0]])).toThrow(/Unknown type handle/);
+    });
 });
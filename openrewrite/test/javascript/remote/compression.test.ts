@@ -0,0 +1,30 @@
+import { describe, expect, test } from "@jest/globals";
+import { inflateSync } from "node:zlib";
+import { decodeFirstSync } from "cbor";
+import { PayloadCompression } from "../../../src/javascript/remote/compression";
+
+describe("PayloadCompression", () => {
+  const compression = PayloadCompression.negotiate("deflate", 64)!;
+
+  test("rejects codecs it does not know", () => {
+    expect(PayloadCompression.negotiate("zstd", 64)).toBeUndefined();
+  });
+
+  test("sends small trees as they are after a null marker", () => {
+    const tree = Buffer.from("small tree");
+
+    const framed = compression.frame(tree);
+
+    expect(framed[0]).toBe(0xf6);
+    expect(framed.subarray(1)).toEqual(tree);
+  });
+
+  test("sends large trees as a deflated byte string", () => {
+    const tree = Buffer.from("const value = props.value;\n".repeat(1_000));
+
+    const framed = compression.frame(tree);
+
+    expect(framed.length).toBeLessThan(tree.length / 4);
+    expect(inflateSync(decodeFirstSync(framed) as Buffer)).toEqual(tree);
+  });
+});
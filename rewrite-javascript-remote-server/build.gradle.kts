@@ -31,6 +31,10 @@ dependencies {
 tasks.register<Exec>("installNodeDeps") {
     dependsOn("processResources")
     executable = "./install.sh"
+    // ship a resolved node_modules archive for offline installations
+    if (project.hasProperty("bundleNodeModules")) {
+        args("--bundle")
+    }
 }
 
 tasks.clean {
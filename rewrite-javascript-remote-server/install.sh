@@ -5,5 +5,10 @@ cd build/resources/main/node-server
 pwd
 npm install @openrewrite/rewrite-remote
 npm install @openrewrite/rewrite
+if [ "$1" = "--bundle" ]; then
+  # pre-resolved dependencies for JavaScriptRemotingServerEngine.Config#offline
+  rm -f node_modules.zip
+  zip -qr node_modules.zip node_modules package-lock.json
+fi
 rm -rf node_modules
 rm -rf package-lock.json
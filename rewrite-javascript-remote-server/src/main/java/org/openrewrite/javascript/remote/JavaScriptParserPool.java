@@ -0,0 +1,373 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.remote;
+
+import lombok.extern.java.Log;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingExecutionContextView;
+import org.openrewrite.remote.RemotingInputParser;
+import org.openrewrite.tree.ParseError;
+import org.openrewrite.tree.ParsingExecutionContextView;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Parser} backed by several Node server processes, so that parsing is not bound to the
+ * single core of one process. Inputs are sharded by the TypeScript project (nearest {@code tsconfig.json})
+ * they belong to, so that the files of one project land on the same process and share its program.
+ * Each process is driven by its own worker thread which takes batches from its own queue and steals
+ * queued batches from the other workers once it runs dry. Every worker receives into its own
+ * {@link RemotingContext}. Results are returned in input order, and the inputs are parsed a window at
+ * a time as the results are consumed. An input whose worker failed is returned as a {@link ParseError}.
+ */
+@Log
+public class JavaScriptParserPool implements Parser, AutoCloseable {
+
+    private static final String TSCONFIG = "tsconfig.json";
+
+    private final List<JavaScriptRemotingServerEngine> engines;
+    private final int workers;
+    private final int batchSize;
+    private final IntFunction<Worker> newWorker;
+    private final ExecutorService executor;
+
+    private JavaScriptParserPool(List<JavaScriptRemotingServerEngine> engines, int batchSize) {
+        // the pool only hands accepted inputs to its workers, so they do not filter them again
+        this(engines, engines.size(), batchSize, worker -> new RemotingInputParser(engines.get(worker), path -> true)::parseInputs);
+    }
+
+    JavaScriptParserPool(List<JavaScriptRemotingServerEngine> engines, int workers, int batchSize, IntFunction<Worker> newWorker) {
+        this.engines = engines;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.newWorker = newWorker;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "rewrite-javascript-parser-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start {@code processes} servers from the same installation, each listening on its own port.
+     * The {@link JavaScriptRemotingServerEngine.Config#port} of {@code config} is ignored.
+     */
+    public static JavaScriptParserPool start(JavaScriptRemotingServerEngine.Config config, int processes, int batchSize) {
+        List<JavaScriptRemotingServerEngine> engines = new ArrayList<>(processes);
+        try {
+            for (int i = 0; i < Math.max(1, processes); i++) {
+                JavaScriptRemotingServerEngine.Config workerConfig = JavaScriptRemotingServerEngine.withPort(
+                        config.toBuilder().port(JavaScriptRemotingServerEngine.DYNAMIC_PORT).build());
+                // only the first engine installs the server, the others share its installation directory
+                JavaScriptRemotingServerEngine engine = i == 0 ?
+                        JavaScriptRemotingServerEngine.create(workerConfig) :
+                        new JavaScriptRemotingServerEngine(workerConfig);
+                engines.add(engine);
+                engine.start();
+            }
+        } catch (Exception e) {
+            engines.forEach(JavaScriptRemotingServerEngine::close);
+            throw new IllegalStateException("Unable to start JavaScript parser pool", e);
+        }
+        return new JavaScriptParserPool(engines, batchSize);
+    }
+
+    public static JavaScriptParserPool start(JavaScriptRemotingServerEngine.Config config) {
+        return start(config, Runtime.getRuntime().availableProcessors(), 64);
+    }
+
+    @Override
+    public Stream<SourceFile> parse(String... sources) {
+        List<Input> inputs = new ArrayList<>(sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            Path path = Paths.get("p" + i + ".ts");
+            int j = i;
+            inputs.add(new Input(
+                    path, null,
+                    () -> new ByteArrayInputStream(sources[j].getBytes(StandardCharsets.UTF_8)),
+                    true
+            ));
+        }
+        return parseInputs(inputs, null, new InMemoryExecutionContext());
+    }
+
+    @Override
+    public Stream<SourceFile> parseInputs(Iterable<Input> inputs, @Nullable Path relativeTo, ExecutionContext ctx) {
+        List<Input> accepted = acceptedInputs(inputs).collect(Collectors.toList());
+        return StreamSupport.stream(Spliterators.spliterator(new Windows(accepted, relativeTo, ctx), accepted.size(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Hands out the parsed trees in input order. The inputs are parsed a window at a time, and the next window
+     * is only scheduled once the consumer starts taking the trees of the one before it, so that no more than
+     * two windows of trees are held at once no matter how slow the consumer is.
+     */
+    private class Windows implements Iterator<SourceFile> {
+        private final List<Input> inputs;
+        private final @Nullable Path relativeTo;
+        private final ExecutionContext ctx;
+        private final int windowSize = Math.max(1, workers * batchSize * 2);
+        private final Map<Optional<Path>, Integer> workerOfProject = new HashMap<>();
+        private final Map<Path, Optional<Path>> projectOfDirectory = new HashMap<>();
+        private final Deque<Window> windows = new ArrayDeque<>(2);
+        private int scheduled;
+        private int position;
+
+        Windows(List<Input> inputs, @Nullable Path relativeTo, ExecutionContext ctx) {
+            this.inputs = inputs;
+            this.relativeTo = relativeTo;
+            this.ctx = ctx;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < inputs.size();
+        }
+
+        @Override
+        public SourceFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (windows.size() < 2 && scheduled < inputs.size()) {
+                int to = Math.min(inputs.size(), scheduled + windowSize);
+                windows.addLast(start(scheduled, to));
+                scheduled = to;
+            }
+            Window window = windows.getFirst();
+            int index = position++ - window.from;
+            CompletableFuture<SourceFile> result = window.results.set(index, null);
+            if (index == window.results.size() - 1) {
+                windows.removeFirst();
+            }
+            try {
+                return result.join();
+            } catch (CompletionException | CancellationException e) {
+                Throwable t = e.getCause() == null ? e : e.getCause();
+                ctx.getOnError().accept(t);
+                return ParseError.build(JavaScriptParserPool.this, inputs.get(position - 1), relativeTo, ctx, t);
+            }
+        }
+
+        private Window start(int from, int to) {
+            List<Input> windowInputs = inputs.subList(from, to);
+            List<CompletableFuture<SourceFile>> results = new ArrayList<>(windowInputs.size());
+            for (int i = 0; i < windowInputs.size(); i++) {
+                results.add(new CompletableFuture<>());
+            }
+
+            List<Deque<Batch>> queues = schedule(windowInputs, relativeTo, workerOfProject, projectOfDirectory);
+            CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+            for (int i = 0; i < workers; i++) {
+                int worker = i;
+                running[i] = CompletableFuture.runAsync(() -> work(worker, queues, windowInputs, results, relativeTo, ctx), executor);
+            }
+            // inputs left over once every worker is done were taken by a worker that failed outside of a batch
+            CompletableFuture.allOf(running).whenComplete((done, t) -> {
+                IllegalStateException e = new IllegalStateException("No worker was left to parse the input", t);
+                for (CompletableFuture<SourceFile> result : results) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return new Window(from, results);
+        }
+    }
+
+    private static class Window {
+        final int from;
+        final List<@Nullable CompletableFuture<SourceFile>> results;
+
+        Window(int from, List<CompletableFuture<SourceFile>> results) {
+            this.from = from;
+            this.results = results;
+        }
+    }
+
+    /**
+     * Split the inputs into batches of at most {@link #batchSize} inputs of the same project and
+     * deal the batches out to the workers, largest project first. A project keeps the worker it was
+     * first dealt to, so that its files share the program of one process across windows.
+     */
+    private List<Deque<Batch>> schedule(List<Input> inputs, @Nullable Path relativeTo,
+                                        Map<Optional<Path>, Integer> workerOfProject,
+                                        Map<Path, Optional<Path>> projectOfDirectory) {
+        Map<Optional<Path>, List<Integer>> byProject = new LinkedHashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            Input input = inputs.get(i);
+            Optional<Path> project = input.isSynthetic() ? Optional.empty() :
+                    project(input.getPath().toAbsolutePath().getParent(), relativeTo, projectOfDirectory);
+            byProject.computeIfAbsent(project, p -> new ArrayList<>()).add(i);
+        }
+
+        List<Map.Entry<Optional<Path>, List<Integer>>> projects = new ArrayList<>(byProject.entrySet());
+        projects.sort(Comparator.comparingInt((Map.Entry<Optional<Path>, List<Integer>> p) -> p.getValue().size()).reversed());
+
+        List<Deque<Batch>> queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            queues.add(new ConcurrentLinkedDeque<>());
+        }
+        for (Map.Entry<Optional<Path>, List<Integer>> project : projects) {
+            Integer worker = workerOfProject.get(project.getKey());
+            if (worker == null) {
+                worker = workerOfProject.size() % workers;
+                workerOfProject.put(project.getKey(), worker);
+            }
+            Deque<Batch> queue = queues.get(worker);
+            List<Integer> indices = project.getValue();
+            for (int from = 0; from < indices.size(); from += batchSize) {
+                queue.addLast(new Batch(indices.subList(from, Math.min(indices.size(), from + batchSize))));
+            }
+        }
+        return queues;
+    }
+
+    private static Optional<Path> project(@Nullable Path dir, @Nullable Path relativeTo, Map<Path, Optional<Path>> cache) {
+        if (dir == null) {
+            return Optional.empty();
+        }
+        Optional<Path> cached = cache.get(dir);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Path> project;
+        if (Files.isRegularFile(dir.resolve(TSCONFIG))) {
+            project = Optional.of(dir);
+        } else if (relativeTo != null && dir.equals(relativeTo.toAbsolutePath())) {
+            project = Optional.empty();
+        } else {
+            project = project(dir.getParent(), relativeTo, cache);
+        }
+        cache.put(dir, project);
+        return project;
+    }
+
+    private void work(int worker, List<Deque<Batch>> queues, List<Input> inputs,
+                      List<CompletableFuture<SourceFile>> results, @Nullable Path relativeTo, ExecutionContext ctx) {
+        Worker parser = newWorker.apply(worker);
+        ExecutionContext workerCtx = workerContext(ctx);
+        Batch batch;
+        while ((batch = take(worker, queues)) != null) {
+            List<Input> batchInputs = new ArrayList<>(batch.indices.size());
+            for (Integer index : batch.indices) {
+                batchInputs.add(inputs.get(index));
+            }
+            try {
+                List<SourceFile> parsed = parser.parseInputs(batchInputs, relativeTo, workerCtx).collect(Collectors.toList());
+                for (int i = 0; i < batch.indices.size(); i++) {
+                    Input input = batchInputs.get(i);
+                    results.get(batch.indices.get(i)).complete(i < parsed.size() ? parsed.get(i) :
+                            ParseError.build(this, input, relativeTo, workerCtx,
+                                    new IllegalStateException("No tree was returned for " + input.getPath())));
+                }
+            } catch (Throwable t) {
+                log.log(Level.WARNING, "Worker " + worker + " failed to parse a batch", t);
+                for (int i = 0; i < batch.indices.size(); i++) {
+                    results.get(batch.indices.get(i)).complete(ParseError.build(this, batchInputs.get(i), relativeTo, workerCtx, t));
+                }
+            }
+        }
+    }
+
+    /**
+     * The remoting context is kept in the execution context and reset by the parser after every request,
+     * so workers that share one would reset each other's context while receiving.
+     */
+    static ExecutionContext workerContext(ExecutionContext ctx) {
+        ExecutionContext workerCtx = new InMemoryExecutionContext(ctx.getOnError());
+        workerCtx.putMessage(ExecutionContext.REQUIRE_PRINT_EQUALS_INPUT, ctx.getMessage(ExecutionContext.REQUIRE_PRINT_EQUALS_INPUT, true));
+        ParsingExecutionContextView.view(workerCtx)
+                .setParsingListener(ParsingExecutionContextView.view(ctx).getParsingListener())
+                .setCharset(ParsingExecutionContextView.view(ctx).getCharset());
+        RemotingExecutionContextView.view(workerCtx)
+                .setRemotingContext(new RemotingContext(JavaScriptParserPool.class.getClassLoader(), false));
+        return workerCtx;
+    }
+
+    /**
+     * Take the next batch from the worker's own queue, or steal the most recently queued batch
+     * of another worker when the own queue is empty.
+     */
+    private static @Nullable Batch take(int worker, List<Deque<Batch>> queues) {
+        Batch batch = queues.get(worker).pollFirst();
+        if (batch != null) {
+            return batch;
+        }
+        for (int i = 1; i < queues.size(); i++) {
+            batch = queues.get((worker + i) % queues.size()).pollLast();
+            if (batch != null) {
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean accept(Path path) {
+        return FileFilter.INSTANCE.test(path);
+    }
+
+    @Override
+    public Path sourcePathFromSourceText(Path prefix, String sourceCode) {
+        return prefix.resolve("file.ts");
+    }
+
+    public int getProcesses() {
+        return workers;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        engines.forEach(JavaScriptRemotingServerEngine::close);
+    }
+
+    @FunctionalInterface
+    interface Worker {
+        Stream<SourceFile> parseInputs(List<Input> inputs, @Nullable Path relativeTo, ExecutionContext ctx);
+    }
+
+    private static class Batch {
+        final List<Integer> indices;
+
+        Batch(List<Integer> indices) {
+            this.indices = indices;
+        }
+    }
+}
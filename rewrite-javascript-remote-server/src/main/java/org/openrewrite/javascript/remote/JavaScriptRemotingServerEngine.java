@@ -21,20 +21,17 @@ import lombok.Builder;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.javascript.internal.RemotingServerEnvironment;
+import org.openrewrite.javascript.internal.RemotingServerHandshake;
+import org.openrewrite.javascript.internal.RemotingServerInstallation;
 import org.openrewrite.remote.AbstractRemotingServerEngine;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 @Log
@@ -43,6 +40,16 @@ public class JavaScriptRemotingServerEngine extends AbstractRemotingServerEngine
     public static final String REWRITE_SERVER_JS_NAME = "node_modules/@openrewrite/rewrite-remote/dist/server.js";
     public static final int DEFAULT_DEBUG_PORT = 54323;
 
+    /**
+     * Let the engine pick a free port when it is created, which is the default. The default used to be
+     * {@link #DEFAULT_DEBUG_PORT}, which has to be set explicitly now to attach to a server started by hand.
+     * <p>
+     * The port is only free at the time it is picked, and the server is launched by
+     * {@link AbstractRemotingServerEngine} once the engine is started. Another process may bind the
+     * port in between, and the engine would then connect to that process instead.
+     */
+    public static final int DYNAMIC_PORT = 0;
+
     Config config;
 
     public static JavaScriptRemotingServerEngine create(Path extractedPackageJsonDir) {
@@ -51,12 +58,21 @@ public class JavaScriptRemotingServerEngine extends AbstractRemotingServerEngine
 
     @SneakyThrows
     public static JavaScriptRemotingServerEngine create(Config config) {
-        installExecutable(config.npmPackageJsonResource, config.extractedPackageJsonDir.toFile());
-        // FIXME rather than using hardcoded port, read it after starting up server
-        return new JavaScriptRemotingServerEngine(config);
+        RemotingServerInstallation.install(JavaScriptRemotingServerEngine.class.getClassLoader(),
+                config.npmPackageJsonResource, config.nodeModulesArchiveResource,
+                config.extractedPackageJsonDir, config.offline);
+        return new JavaScriptRemotingServerEngine(withPort(config));
+    }
+
+    /**
+     * Resolve {@link #DYNAMIC_PORT} to a port that is free right now, so that any number of
+     * engines can run side by side on one host without colliding.
+     */
+    static Config withPort(Config config) throws IOException {
+        return config.port > DYNAMIC_PORT ? config : config.toBuilder().port(RemotingServerHandshake.freePort()).build();
     }
 
-    private JavaScriptRemotingServerEngine(Config config) {
+    JavaScriptRemotingServerEngine(Config config) {
         super(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.port), Duration.ofMillis(config.timeoutInMilliseconds));
         this.config = config;
     }
@@ -69,42 +85,11 @@ public class JavaScriptRemotingServerEngine extends AbstractRemotingServerEngine
         command.add(config.jsServerFileName);
         command.add(String.valueOf(config.port));
 
-        return processBuilder.command(command).directory(config.extractedPackageJsonDir.toFile());
-    }
-
-    private static void installExecutable(String npmPackageJsonResourceName, File installationDir) throws IOException, InterruptedException {
-        if (!Files.isDirectory(installationDir.toPath())) {
-            installationDir.mkdirs();
+        if (config.syntaxOnly) {
+            processBuilder.environment().put(RemotingServerEnvironment.SYNTAX_ONLY, "true");
         }
 
-        exportResource(npmPackageJsonResourceName, installationDir);
-
-        List<String> command = new ArrayList(Arrays.asList("npm", "update", "--force"));
-        ProcessBuilder processBuilder = new ProcessBuilder(command);
-        Process process = processBuilder.directory(installationDir).start();
-        int exitCode = process.waitFor();
-    }
-
-    private static void exportResource(String resourceName, File outputDir) throws IOException {
-        try (InputStream stream = JavaScriptRemotingServerEngine.class.getClassLoader().getResourceAsStream(resourceName)) {
-            if (stream == null) {
-                throw new IllegalArgumentException("Cannot get resource \"" + resourceName + "\" from Jar " +
-                        "file.");
-            }
-
-            int readBytes;
-            byte[] buffer = new byte[4096];
-            try (
-                    OutputStream resStreamOut =
-                            Files.newOutputStream(Paths.get(outputDir.getPath(),
-                                    Paths.get(resourceName).getFileName().toString()))) {
-
-                while ((readBytes = stream.read(buffer)) > 0) {
-                    resStreamOut.write(buffer, 0, readBytes);
-                }
-                resStreamOut.flush();
-            }
-        }
+        return processBuilder.command(command).directory(config.extractedPackageJsonDir.toFile());
     }
 
     @Override
@@ -112,10 +97,10 @@ public class JavaScriptRemotingServerEngine extends AbstractRemotingServerEngine
         return "JavaScript";
     }
 
-    @Builder
+    @Builder(toBuilder = true)
     public static class Config {
         @Builder.Default()
-        int port = DEFAULT_DEBUG_PORT;
+        int port = DYNAMIC_PORT;
 
         @Builder.Default()
         int timeoutInMilliseconds = (int) Duration.ofHours(1).toMillis();
@@ -134,9 +119,24 @@ public class JavaScriptRemotingServerEngine extends AbstractRemotingServerEngine
         @Builder.Default()
         String npmPackageJsonResource = "node-server/package.json";
 
+        @Builder.Default()
+        String nodeModulesArchiveResource = "node-server/node_modules.zip";
+
+        /**
+         * Unpack {@link #nodeModulesArchiveResource} rather than running {@code npm}, which needs network access.
+         */
+        @Builder.Default()
+        boolean offline = false;
+
         Path extractedPackageJsonDir;
 
         @Builder.Default()
         String jsServerFileName = REWRITE_SERVER_JS_NAME;
+
+        /**
+         * Parse without a type checker, leaving the trees without type attribution.
+         */
+        @Builder.Default()
+        boolean syntaxOnly = false;
     }
 }
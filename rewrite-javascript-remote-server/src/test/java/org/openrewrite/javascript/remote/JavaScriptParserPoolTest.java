@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openrewrite.javascript.remote;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingExecutionContextView;
+import org.openrewrite.text.PlainTextParser;
+import org.openrewrite.tree.ParseError;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JavaScriptParserPoolTest {
+
+    @Test
+    public void resultsAreInInputOrder() {
+        Path root = Path.of(ClassLoader.getSystemResource("./__mocks__/monorepo").getPath());
+        List<Path> paths = Stream.of(
+                "scripts/script.ts",
+                "packages/too-good/too-good.js",
+                "not-a-workspace/naw.js",
+                "not-a-workspace/naw2.ts",
+                "packages/upvote/src/js-target.js",
+                "packages/upvote/src/ts-target.ts"
+        ).map(root::resolve).toList();
+
+        try (JavaScriptParserPool pool = JavaScriptParserPool.start(JavaScriptRemotingServerEngine.Config.builder()
+                .extractedPackageJsonDir(Paths.get("./build/tmp"))
+                .logFilePath(Paths.get("./build/test.log").toAbsolutePath().toString())
+                .build(), 2, 1)) {
+
+            List<SourceFile> sourceFiles = pool.parseInputs(
+                    paths.stream().map(Parser.Input::fromFile).toList(),
+                    root,
+                    new InMemoryExecutionContext()
+            ).toList();
+
+            assertThat(sourceFiles).extracting(SourceFile::getSourcePath)
+                    .containsExactlyElementsOf(paths.stream().map(root::relativize).toList());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    public void workersReceiveIntoTheirOwnContext() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        RemotingContext shared = new RemotingContext(getClass().getClassLoader(), false);
+        RemotingExecutionContextView.view(ctx).setRemotingContext(shared);
+        Set<RemotingContext> contexts = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        // hold the first batches until a second worker is parsing at the same time
+        CountDownLatch parsing = new CountDownLatch(2);
+
+        try (JavaScriptParserPool pool = new JavaScriptParserPool(Collections.emptyList(), 4, 1, worker -> (inputs, relativeTo, workerCtx) -> {
+            contexts.add(RemotingExecutionContextView.view(workerCtx).getRemotingContext());
+            parsing.countDown();
+            try {
+                parsing.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return PlainTextParser.builder().build().parseInputs(inputs, relativeTo, workerCtx);
+        })) {
+            assertThat(pool.parseInputs(inputs(40), null, ctx)).hasSize(40);
+        }
+
+        assertThat(contexts).hasSizeGreaterThan(1).doesNotContain(shared);
+    }
+
+    @Test
+    @Timeout(10)
+    public void otherWorkersTakeOverFromAFailedWorker() {
+        try (JavaScriptParserPool pool = new JavaScriptParserPool(Collections.emptyList(), 2, 1, worker -> {
+            if (worker == 0) {
+                throw new IllegalStateException("Worker 0 did not start");
+            }
+            return (inputs, relativeTo, ctx) -> PlainTextParser.builder().build().parseInputs(inputs, relativeTo, ctx);
+        })) {
+            List<Parser.Input> inputs = inputs(10);
+            List<SourceFile> sourceFiles = pool.parseInputs(inputs, null, new InMemoryExecutionContext()).toList();
+
+            assertThat(sourceFiles).extracting(SourceFile::getSourcePath)
+                    .containsExactlyElementsOf(inputs.stream().map(Parser.Input::getPath).toList());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    public void failsRatherThanHangsWhenEveryWorkerFailed() {
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        try (JavaScriptParserPool pool = new JavaScriptParserPool(Collections.emptyList(), 2, 1, worker -> {
+            throw new IllegalStateException("Worker " + worker + " did not start");
+        })) {
+            List<SourceFile> sourceFiles = pool.parseInputs(inputs(3), null, new InMemoryExecutionContext(errors::add)).toList();
+
+            assertThat(sourceFiles).hasSize(3).allSatisfy(sourceFile -> assertThat(sourceFile).isInstanceOf(ParseError.class));
+            assertThat(errors).hasSize(3).allSatisfy(t -> assertThat(t).hasMessageContaining("No worker was left to parse the input"));
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    public void parsesOnlyAsFarAheadAsTheConsumer() throws InterruptedException {
+        AtomicInteger parsed = new AtomicInteger();
+        try (JavaScriptParserPool pool = new JavaScriptParserPool(Collections.emptyList(), 2, 1, worker -> (inputs, relativeTo, ctx) -> {
+            parsed.addAndGet(inputs.size());
+            return PlainTextParser.builder().build().parseInputs(inputs, relativeTo, ctx);
+        })) {
+            Iterator<SourceFile> sourceFiles = pool.parseInputs(inputs(100), null, new InMemoryExecutionContext()).iterator();
+            sourceFiles.next();
+            // two windows of two workers with batches of one, twice over
+            while (parsed.get() < 8) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            assertThat(parsed.get()).isEqualTo(8);
+
+            int consumed = 1;
+            while (sourceFiles.hasNext()) {
+                sourceFiles.next();
+                consumed++;
+            }
+            assertThat(consumed).isEqualTo(100);
+            assertThat(parsed.get()).isEqualTo(100);
+        }
+    }
+
+    private static List<Parser.Input> inputs(int n) {
+        List<Parser.Input> inputs = new ArrayList<>(n);
+        IntStream.range(0, n).forEach(i -> inputs.add(new Parser.Input(Paths.get("p" + i + ".ts"), null,
+                () -> new ByteArrayInputStream(("const p" + i + " = " + i + ";").getBytes(StandardCharsets.UTF_8)), true)));
+        return inputs;
+    }
+}
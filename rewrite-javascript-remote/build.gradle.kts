@@ -1,5 +1,6 @@
 plugins {
     id("org.openrewrite.build.language-library")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 
@@ -25,11 +26,17 @@ dependencies {
     testImplementation("org.junit-pioneer:junit-pioneer:2.0.0")
 
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:latest.release")
+
+    jmh("org.openjdk.jmh:jmh-core:latest.release")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
 }
 
-// FIXME disable all tests for now until the parser tests have been moved to JavaScript
+// FIXME only run the tests which do not need a Node server until the parser tests have been moved to JavaScript
 tasks.withType<Test> {
-    enabled = false
+    filter {
+        includeTestsMatching("org.openrewrite.javascript.remote.JavaScriptReceiverFactoryTest")
+    }
 }
 
 tasks.withType<Javadoc> {
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.remote;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openrewrite.javascript.internal.PayloadCompression;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands payloads shaped like serialized trees through a loopback socket with small buffers, either as
+ * they are or deflated by the sender and inflated by the receiver. The smallest payload size for which
+ * {@link #deflated()} is faster than {@link #uncompressed()} is the crossover point, and a reasonable
+ * value for {@code JavaScriptParser.Builder#compressionThreshold(long)} on comparable machines.
+ * <p>
+ * Over an unthrottled loopback socket copying always beats deflating, so the sender can be paced to the
+ * bandwidth of the link between the containers of the client and the server. Deflating only pays off in
+ * time on links slower than the deflater, which on current hardware means tens of megabytes per second.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PayloadCompressionBenchmark {
+
+    private static final String[] WHITESPACE = {"", " ", "\n", "\n    ", "\n        ", "\n            "};
+    private static final String[] WORDS = {"const", "function", "return", "props", "value", "length", "map",
+            "string", "number", "Promise", "React.Component", "java.lang.String", "useState", "undefined"};
+
+    @Param({"1024", "8192", "65536", "524288", "4194304"})
+    int payloadBytes;
+
+    @Param({"65536"})
+    int socketBufferBytes;
+
+    /**
+     * {@code 0} for an unthrottled loopback socket.
+     */
+    @Param({"0", "100", "10"})
+    int linkMegabytesPerSecond;
+
+    byte[] payload;
+
+    private ServerSocket server;
+    private Socket client;
+    private DataOutputStream out;
+    private InputStream acknowledgements;
+
+    @Setup
+    public void setup() throws IOException {
+        payload = treeLikePayload(payloadBytes);
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        server.setReceiveBufferSize(socketBufferBytes);
+        client = new Socket();
+        client.setSendBufferSize(socketBufferBytes);
+        // as the remoting connections, which would otherwise wait for delayed acknowledgements
+        client.setTcpNoDelay(true);
+        client.connect(server.getLocalSocketAddress());
+        Socket accepted = server.accept();
+        accepted.setTcpNoDelay(true);
+        Thread receiver = new Thread(() -> receive(accepted), "payload-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+        acknowledgements = client.getInputStream();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int uncompressed() throws IOException {
+        return send(false, payload);
+    }
+
+    @Benchmark
+    public int deflated() throws IOException {
+        return send(true, PayloadCompression.deflate(payload));
+    }
+
+    private int send(boolean compressed, byte[] bytes) throws IOException {
+        out.writeBoolean(compressed);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+        if (linkMegabytesPerSecond > 0) {
+            // a megabyte per second takes a microsecond per byte
+            LockSupport.parkNanos(bytes.length * 1_000L / linkMegabytesPerSecond);
+        }
+        return acknowledgements.read();
+    }
+
+    private static void receive(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             OutputStream acknowledgements = socket.getOutputStream()) {
+            byte[] buffer = new byte[8192];
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                boolean compressed = in.readBoolean();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                if (compressed) {
+                    try (InputStream inflated = PayloadCompression.inflate(bytes)) {
+                        //noinspection StatementWithEmptyBody
+                        while (inflated.read(buffer) >= 0) {
+                        }
+                    }
+                }
+                acknowledgements.write(1);
+                acknowledgements.flush();
+            }
+        } catch (IOException ignored) {
+            // the benchmark closed the connection
+        }
+    }
+
+    /**
+     * Nodes as the server serializes them: a sequential id, a prefix, some names and an occasional type.
+     */
+    static byte[] treeLikePayload(int size) {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 64);
+        byte[] idPrefix = new byte[10];
+        random.nextBytes(idPrefix);
+        long id = 0;
+        while (out.size() < size) {
+            out.write(0x50);
+            out.write(idPrefix, 0, idPrefix.length);
+            long counter = id++;
+            for (int i = 0; i < 6; i++) {
+                out.write((int) (counter >>> (40 - 8 * i)));
+            }
+            writeString(out, WHITESPACE[random.nextInt(WHITESPACE.length)]);
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                writeString(out, WORDS[random.nextInt(WORDS.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                writeString(out, WORDS[random.nextInt(WORDS.length)] + random.nextInt(1000));
+            }
+        }
+        byte[] bytes = out.toByteArray();
+        byte[] exact = new byte[size];
+        System.arraycopy(bytes, 0, exact, 0, size);
+        return exact;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.write(0x60 + bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PayloadCompressionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
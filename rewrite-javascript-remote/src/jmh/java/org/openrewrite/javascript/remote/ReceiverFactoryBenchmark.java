@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.remote;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node construction starts with looking up the factory of the received node type. The generated factory
+ * memoizes its chain of type comparisons in a {@link ClassValue}, so once a type was looked up, the lookup
+ * should take the same time for the first and the last of the node types the receiver knows about.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ReceiverFactoryBenchmark {
+
+    @Param({
+            "org.openrewrite.javascript.tree.JS$CompilationUnit",
+            "org.openrewrite.javascript.tree.JS$TypeTreeExpression",
+            "org.openrewrite.java.tree.J$Identifier",
+            "org.openrewrite.java.tree.J$Erroneous"
+    })
+    String nodeType;
+
+    Class<?> type;
+    ClassValue<?> factories;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        type = Class.forName(nodeType);
+        factories = factories();
+    }
+
+    @Benchmark
+    public Object factoryFor() {
+        return factories.get(type);
+    }
+
+    /**
+     * The factory is private to the generated receiver.
+     */
+    private static ClassValue<?> factories() throws ReflectiveOperationException {
+        Class<?> factoryType = Class.forName(JavaScriptReceiver.class.getName() + "$Factory");
+        Constructor<?> constructor = factoryType.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Field factories = factoryType.getDeclaredField("factories");
+        factories.setAccessible(true);
+        return (ClassValue<?>) factories.get(constructor.newInstance());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ReceiverFactoryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -17,9 +17,14 @@ package org.openrewrite.javascript.remote;
 
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.java.tree.*;
+import org.openrewrite.javascript.internal.WhitespaceInterner;
 import org.openrewrite.remote.ReceiverContext;
 import org.openrewrite.remote.SenderContext;
 
+/**
+ * Received whitespace is pooled through the {@link WhitespaceInterner}, so that the many identical
+ * indentation strings of a run share one instance.
+ */
 class Extensions {
     public static <T extends J> void sendContainer(JContainer<T> container, SenderContext ctx) {
         org.openrewrite.java.remote.Extensions.sendContainer(container, ctx);
@@ -42,7 +47,8 @@ class Extensions {
     }
 
     public static <T extends J> JContainer<T> receiveContainer(@Nullable JContainer<T> container, @Nullable Class<?> type, ReceiverContext ctx) {
-        return org.openrewrite.java.remote.Extensions.receiveContainer(container, type, ctx);
+        JContainer<T> received = org.openrewrite.java.remote.Extensions.receiveContainer(container, type, ctx);
+        return received.withBefore(WhitespaceInterner.shared().intern(received.getBefore()));
     }
 
     public static <T> ReceiverContext.DetailsReceiver<JLeftPadded<T>> leftPaddedValueReceiver(Class<T> valueType) {
@@ -54,7 +60,8 @@ class Extensions {
     }
 
     public static <T extends J> JLeftPadded<T> receiveLeftPaddedTree(@Nullable JLeftPadded<T> leftPadded, @Nullable Class<?> type, ReceiverContext ctx) {
-        return org.openrewrite.java.remote.Extensions.receiveLeftPaddedTree(leftPadded, type, ctx);
+        JLeftPadded<T> received = org.openrewrite.java.remote.Extensions.receiveLeftPaddedTree(leftPadded, type, ctx);
+        return received.withBefore(WhitespaceInterner.shared().intern(received.getBefore()));
     }
 
     public static <T> ReceiverContext.DetailsReceiver<JRightPadded<T>> rightPaddedValueReceiver(Class<T> valueType) {
@@ -66,11 +73,12 @@ class Extensions {
     }
 
     public static <T extends J> JRightPadded<T> receiveRightPaddedTree(@Nullable JRightPadded<T> rightPadded, @Nullable Class<?> type, ReceiverContext ctx) {
-        return org.openrewrite.java.remote.Extensions.receiveRightPaddedTree(rightPadded, type, ctx);
+        JRightPadded<T> received = org.openrewrite.java.remote.Extensions.receiveRightPaddedTree(rightPadded, type, ctx);
+        return received.withAfter(WhitespaceInterner.shared().intern(received.getAfter()));
     }
 
     public static Space receiveSpace(@Nullable Space space, Class<?> type, ReceiverContext ctx) {
-        return org.openrewrite.java.remote.Extensions.receiveSpace(space, type, ctx);
+        return WhitespaceInterner.shared().intern(org.openrewrite.java.remote.Extensions.receiveSpace(space, type, ctx));
     }
 
     public static Comment receiveComment(@Nullable Comment comment, @Nullable Class<Comment> type, ReceiverContext ctx) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.remote;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.javascript.tree.JS;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JavaScriptReceiverFactoryTest {
+
+    @Test
+    void everyJavaScriptNodeHasAFactory() throws ReflectiveOperationException {
+        ClassValue<?> factories = factories();
+        List<Class<?>> nodeTypes = nodeTypes(JS.class, new ArrayList<>());
+        assertThat(nodeTypes).contains(JS.CompilationUnit.class, JS.MappedType.KeysRemapping.class);
+        for (Class<?> nodeType : nodeTypes) {
+            assertThat(factories.get(nodeType)).as(nodeType.getName()).isNotNull();
+        }
+    }
+
+    @Test
+    void dispatchesOnTheExactType() throws ReflectiveOperationException {
+        ClassValue<?> factories = factories();
+        assertThat(factories.get(J.Identifier.class)).isNotSameAs(factories.get(J.Erroneous.class));
+        assertThat(factories.get(JS.CompilationUnit.class)).isNotSameAs(factories.get(JS.Alias.class));
+        // looked up again, a type is served from the memoized value
+        assertThat(factories.get(J.Identifier.class)).isSameAs(factories.get(J.Identifier.class));
+    }
+
+    @Test
+    void rejectsUnknownTypes() throws ReflectiveOperationException {
+        ClassValue<?> factories = factories();
+        assertThatThrownBy(() -> factories.get(String.class))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("Unknown type");
+    }
+
+    private static List<Class<?>> nodeTypes(Class<?> enclosing, List<Class<?>> nodeTypes) {
+        for (Class<?> nested : enclosing.getDeclaredClasses()) {
+            if (Tree.class.isAssignableFrom(nested) && !nested.isInterface() &&
+                !Modifier.isAbstract(nested.getModifiers())) {
+                nodeTypes.add(nested);
+            }
+            nodeTypes(nested, nodeTypes);
+        }
+        return nodeTypes;
+    }
+
+    /**
+     * The factory is private to the generated receiver.
+     */
+    private static ClassValue<?> factories() throws ReflectiveOperationException {
+        Class<?> factoryType = Class.forName(JavaScriptReceiver.class.getName() + "$Factory");
+        Constructor<?> constructor = factoryType.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Field factories = factoryType.getDeclaredField("factories");
+        factories.setAccessible(true);
+        return (ClassValue<?>) factories.get(constructor.newInstance());
+    }
+}
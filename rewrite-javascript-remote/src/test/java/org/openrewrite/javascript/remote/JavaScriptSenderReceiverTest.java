@@ -0,0 +1,178 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.remote;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.javascript.JavaScriptIsoVisitor;
+import org.openrewrite.javascript.JavaScriptParser;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingMessenger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("deprecation")
+class JavaScriptSenderReceiverTest {
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private static final String SOURCE = """
+      import {readFile} from "fs";
+
+      /** Greets in one of several languages. */
+      export class Greeter<T extends string> {
+          private readonly greeting: T;
+
+          constructor(greeting: T) {
+              this.greeting = greeting;
+          }
+
+          greet(name: string): string {
+              return `${this.greeting}, ${name}!`;
+          }
+      }
+
+      const greeters = ["Hello", "Hallo"].map(g => new Greeter(g));
+      for (const greeter of greeters) {
+          console.log(greeter.greet("world"));
+      }
+
+      export async function load(path: string): Promise<string | undefined> {
+          try {
+              return await new Promise((resolve, reject) =>
+                  readFile(path, "utf8", (err, data) => err ? reject(err) : resolve(data)));
+          } catch {
+              return undefined;
+          }
+      }
+      """;
+
+    @Test
+    void receivesTheTreeThatWasSent() throws IOException {
+        JS.CompilationUnit sent = parse();
+
+        JS.CompilationUnit received = roundTrip(sent, null);
+
+        assertThat(received.printAll()).isEqualTo(SOURCE);
+        assertThat(nodes(received)).isEqualTo(nodes(sent));
+    }
+
+    @Test
+    void updatesOnlyTheChangedNodes() throws IOException {
+        JS.CompilationUnit before = parse();
+        JS.CompilationUnit after = (JS.CompilationUnit) new JavaScriptIsoVisitor<Integer>() {
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, Integer p) {
+                return "greeting".equals(identifier.getSimpleName()) ? identifier.withSimpleName("salutation") : identifier;
+            }
+        }.visitNonNull(before, 0);
+
+        JS.CompilationUnit received = roundTrip(after, before);
+
+        assertThat(received.printAll()).isEqualTo(after.printAll());
+        assertThat(nodes(received)).isEqualTo(nodes(after));
+        // the greeter class changed, the import before it and the function after it did not
+        assertThat(received.getStatements().get(0)).isSameAs(before.getStatements().get(0));
+        assertThat(received.getStatements().get(1)).isNotSameAs(before.getStatements().get(1));
+        assertThat(last(received.getStatements())).isSameAs(last(before.getStatements()));
+    }
+
+    @Test
+    void reusesUnchangedTree() throws IOException {
+        JS.CompilationUnit before = parse();
+
+        assertThat(roundTrip(before, before)).isSameAs(before);
+    }
+
+    @Test
+    void updatesAChangedLeaf() throws IOException {
+        JS.CompilationUnit before = parse();
+        JS.CompilationUnit after = (JS.CompilationUnit) new JavaScriptIsoVisitor<Integer>() {
+            @Override
+            public J.Literal visitLiteral(J.Literal literal, Integer p) {
+                return "utf8".equals(literal.getValue()) ? literal.withValue("utf-8").withValueSource("\"utf-8\"") : literal;
+            }
+        }.visitNonNull(before, 0);
+
+        JS.CompilationUnit received = roundTrip(after, before);
+
+        assertThat(received.printAll()).isEqualTo(after.printAll()).contains("\"utf-8\"");
+        assertThat(nodes(received)).isEqualTo(nodes(after));
+        List<Statement> statements = received.getStatements();
+        for (int i = 0; i < statements.size() - 1; i++) {
+            assertThat(statements.get(i)).isSameAs(before.getStatements().get(i));
+        }
+        assertThat(last(statements)).isNotSameAs(last(before.getStatements()));
+    }
+
+    @Test
+    void movesANode() throws IOException {
+        JS.CompilationUnit before = parse();
+        List<Statement> statements = new ArrayList<>(before.getStatements());
+        statements.add(0, statements.remove(statements.size() - 1));
+        JS.CompilationUnit after = before.withStatements(statements);
+
+        JS.CompilationUnit received = roundTrip(after, before);
+
+        assertThat(received.printAll()).isEqualTo(after.printAll());
+        assertThat(nodes(received)).isEqualTo(nodes(after));
+        assertThat(received.getStatements().get(0).getId()).isEqualTo(last(before.getStatements()).getId());
+    }
+
+    private static JS.CompilationUnit parse() {
+        JavaScriptParser parser = JavaScriptParser.usingRemotingInstallation(
+                Paths.get("./build/rewrite-js-server").toAbsolutePath().normalize()).build();
+        return (JS.CompilationUnit) parser.parse(SOURCE).findFirst().orElseThrow();
+    }
+
+    static JS.CompilationUnit roundTrip(JS.CompilationUnit after, JS.@Nullable CompilationUnit before) throws IOException {
+        ClassLoader classLoader = JavaScriptSenderReceiverTest.class.getClassLoader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBORGenerator generator = CBOR_FACTORY.createGenerator(out)) {
+            RemotingMessenger.sendTree(new RemotingContext(classLoader, false), generator, after, before);
+        }
+        try (CBORParser parser = CBOR_FACTORY.createParser(out.toByteArray())) {
+            return (JS.CompilationUnit) RemotingMessenger.receiveTree(new RemotingContext(classLoader, false), parser, before);
+        }
+    }
+
+    private static List<String> nodes(J tree) {
+        List<String> nodes = new ArrayList<>();
+        new JavaScriptIsoVisitor<List<String>>() {
+            @Override
+            public J preVisit(J tree, List<String> nodes) {
+                nodes.add(tree.getClass().getSimpleName() + " " + tree.getId());
+                return tree;
+            }
+        }.visit(tree, nodes);
+        return nodes;
+    }
+
+    private static <T> T last(List<T> list) {
+        return list.get(list.size() - 1);
+    }
+}
@@ -14,6 +14,7 @@ dependencies {
     implementation("org.openrewrite:rewrite-remote-java:$latest") {
         exclude(group = "org.openrewrite", module = "rewrite-javascript")
     }
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
 
     compileOnly("org.assertj:assertj-core:latest.release")
     testImplementation("org.assertj:assertj-core:latest.release")
@@ -32,9 +33,12 @@ tasks.withType<LicenseCheck> {
     include("*.java")
 }
 
-// FIXME disable all tests for now until the parser tests have been moved to JavaScript
+// FIXME only run the tests which do not need a Node server until the parser tests have been moved to JavaScript
 tasks.withType<Test> {
-    enabled = false
+    filter {
+        includeTestsMatching("org.openrewrite.javascript.internal.*")
+        includeTestsMatching("org.openrewrite.javascript.JavaScriptParserRemotingTest")
+    }
 }
 
 tasks.withType<Javadoc> {
@@ -21,10 +21,25 @@ import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.internal.EncodingDetectingInputStream;
 import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.javascript.internal.HashingPrintOutputCapture;
+import org.openrewrite.javascript.internal.JavaScriptLstCache;
+import org.openrewrite.javascript.internal.JavaScriptTypeCache;
+import org.openrewrite.javascript.internal.JavaScriptTypeHandles;
+import org.openrewrite.javascript.internal.MinifiedFileClassifier;
+import org.openrewrite.javascript.internal.ParseDeadlines;
+import org.openrewrite.javascript.internal.PayloadCompression;
+import org.openrewrite.javascript.internal.RemotingConnectionPool;
+import org.openrewrite.javascript.internal.RemotingRequests;
+import org.openrewrite.javascript.internal.RemotingServerEnvironment;
+import org.openrewrite.javascript.internal.RemotingServerHandshake;
+import org.openrewrite.javascript.internal.RemotingServerInstallation;
+import org.openrewrite.javascript.internal.RemotingTypeSession;
+import org.openrewrite.javascript.internal.WhitespaceInterner;
+import org.openrewrite.javascript.markers.ParseTimeout;
 import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.quark.QuarkParser;
 import org.openrewrite.remote.RemotingContext;
-import org.openrewrite.remote.RemotingExecutionContextView;
-import org.openrewrite.remote.RemotingMessenger;
 import org.openrewrite.remote.Validator;
 import org.openrewrite.remote.java.RemotingClient;
 import org.openrewrite.style.NamedStyles;
@@ -38,12 +53,20 @@ import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.requireNonNull;
 
@@ -60,10 +83,42 @@ public class JavaScriptParser implements Parser {
     private final JavaTypeCache typeCache;
     private final List<Path> nodePath;
     private final Path installationDir;
+    private final int serverPort;
+    private final int maxConnections;
+    private final Duration healthCheckInterval;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final boolean batchRequests;
+    private final @Nullable JavaScriptLstCache lstCache;
+    private final long maxInFlightBytes;
+    private final PrintIdempotenceCheck printIdempotenceCheck;
+    private final double printIdempotenceSamplePercentage;
+    private final ParseDeadlines parseDeadlines;
+    private final boolean skipMinifiedFiles;
+    private final boolean syntaxOnly;
+    private final boolean lazyTypeAttribution;
+    private final boolean sessionTypeTable;
+    private final boolean declarationCache;
+    private final long compressionThreshold;
+    private final JavaScriptTypeCache resolvedTypes = new JavaScriptTypeCache();
 
-    private @Nullable Process nodeProcess;
-    private @Nullable RemotingContext remotingContext;
-    private @Nullable RemotingClient client;
+    /**
+     * Only used to look up the validators of received trees, which is done on the consumer's thread.
+     */
+    private final RemotingContext remotingContext = new RemotingContext(JavaScriptParser.class.getClassLoader(), false);
+
+    /**
+     * Bounds the batches parsed ahead of the consumer when their size is not known up front,
+     * which it is not for inputs that are not files.
+     */
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
+
+    /**
+     * Read once per batch by the thread that requests it and only replaced under the parser's lock,
+     * so that a restart on the fetch thread never swaps the connections of a request in progress.
+     */
+    private volatile @Nullable Server server;
+    private @Nullable ExecutorService fetchExecutor;
 
     @Override
     public Stream<SourceFile> parse(String... sources) {
@@ -91,63 +146,799 @@ public class JavaScriptParser implements Parser {
             return PlainTextParser.builder().build().parseInputs(inputs, relativeTo, ctx);
         }
 
-        ParsingExecutionContextView pctx = ParsingExecutionContextView.view(ctx);
-        ParsingEventListener parsingListener = pctx.getParsingListener();
+        ParsingEventListener parsingListener = ParsingExecutionContextView.view(ctx).getParsingListener();
+        AtomicLong minifiedFilesSkipped = new AtomicLong();
+        Iterator<List<Input>> batches = batches(acceptedInputs(inputs));
+        Iterator<List<Received>> received = new Iterator<List<Received>>() {
+            final Deque<InFlight> inFlight = new ArrayDeque<>();
+            long inFlightBytes;
 
-        return acceptedInputs(inputs).map(input -> {
-            Path path = input.getRelativePath(relativeTo);
-            parsingListener.startedParsing(input);
+            @Override
+            public boolean hasNext() {
+                request();
+                return !inFlight.isEmpty();
+            }
 
-            assert client != null;
-            assert remotingContext != null;
-            try (EncodingDetectingInputStream is = input.getSource(ctx)) {
-                SourceFile parsed = client.withNewSocket((socket, messenger) -> requireNonNull(messenger.sendRequest(generator -> {
-                            if (input.isSynthetic() || !Files.isRegularFile(input.getPath())) {
-                                generator.writeString("parse-source");
-                                generator.writeString(is.readFully());
+            @Override
+            public List<Received> next() {
+                request();
+                InFlight batch = inFlight.poll();
+                if (batch == null) {
+                    throw new NoSuchElementException();
+                }
+                inFlightBytes -= batch.bytes;
+                // keep the server busy with the following batches while this one is post-processed
+                request();
+                return batch.received.join();
+            }
+
+            private void request() {
+                while (batches.hasNext() && (inFlight.isEmpty() ||
+                                             inFlightBytes < maxInFlightBytes && inFlight.size() < MAX_IN_FLIGHT_BATCHES)) {
+                    List<Input> batch = batches.next();
+                    Received[] skipped = new Received[batch.size()];
+                    List<Input> toParse = new ArrayList<>(batch.size());
+                    long bytes = 0;
+                    for (int i = 0; i < batch.size(); i++) {
+                        Input input = batch.get(i);
+                        if (skipMinifiedFiles && !isSourceInput(input) && MinifiedFileClassifier.isMinified(input.getPath())) {
+                            parsingListener.startedParsing(input);
+                            skipped[i] = new Received(input, quark(input, relativeTo, ctx), Received.State.SKIPPED);
+                        } else {
+                            parsingListener.startedParsing(input);
+                            toParse.add(input);
+                            bytes += estimateSize(input);
+                        }
+                    }
+                    CompletableFuture<List<Received>> received = toParse.isEmpty() ?
+                            CompletableFuture.completedFuture(Collections.emptyList()) :
+                            fetch(toParse, relativeTo, ctx);
+                    inFlight.add(new InFlight(received.thenApply(parsed -> merge(skipped, parsed)), bytes));
+                    inFlightBytes += bytes;
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(received, Spliterator.ORDERED), false)
+                .flatMap(batch -> batch.stream().map(r -> complete(r, relativeTo, ctx, parsingListener, minifiedFilesSkipped)));
+    }
+
+    /**
+     * Look up the batch in the LST cache and request the trees of the misses from the server. With an
+     * in-flight budget this happens on the fetch thread, so that the server parses while the consumer
+     * validates the previous batches.
+     */
+    private CompletableFuture<List<Received>> fetch(List<Input> batch, @Nullable Path relativeTo, ExecutionContext ctx) {
+        if (maxInFlightBytes <= 0) {
+            return CompletableFuture.completedFuture(fetch0(batch, relativeTo, ctx));
+        }
+        return CompletableFuture.supplyAsync(() -> fetch0(batch, relativeTo, ctx), fetchExecutor());
+    }
+
+    private List<Received> fetch0(List<Input> batch, @Nullable Path relativeTo, ExecutionContext ctx) {
+        if (lstCache == null) {
+            return parse(batch, server, relativeTo, ctx);
+        }
+
+        Received[] received = new Received[batch.size()];
+        String[] keys = new String[batch.size()];
+        List<Input> misses = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Input input = batch.get(i);
+            SourceFile cached = null;
+            try {
+                keys[i] = lstCache.key(input, relativeTo, ctx);
+                cached = lstCache.get(keys[i]);
+            } catch (IOException ignored) {
+                // parse the input as if it was not cached
+            }
+            if (cached != null) {
+                received[i] = new Received(input, cached, Received.State.CACHED, lstCache.getHits(), lstCache.getMisses());
+            } else {
+                misses.add(input);
+            }
+        }
+
+        Iterator<Received> parsed = parse(misses, server, relativeTo, ctx).iterator();
+        for (int i = 0; i < batch.size(); i++) {
+            if (received[i] == null) {
+                received[i] = parsed.next();
+                received[i].cacheKey = keys[i];
+                received[i].cacheHits = lstCache.getHits();
+                received[i].cacheMisses = lstCache.getMisses();
+            }
+        }
+        return Arrays.asList(received);
+    }
+
+    private static List<Received> merge(Received[] skipped, List<Received> parsed) {
+        Iterator<Received> iterator = parsed.iterator();
+        for (int i = 0; i < skipped.length; i++) {
+            if (skipped[i] == null) {
+                skipped[i] = iterator.next();
+            }
+        }
+        return Arrays.asList(skipped);
+    }
+
+    /**
+     * Minified and bundled files are represented by a {@link org.openrewrite.quark.Quark}, which keeps
+     * them in the set of source files without parsing or type attributing them.
+     */
+    private SourceFile quark(Input input, @Nullable Path relativeTo, ExecutionContext ctx) {
+        return new QuarkParser().parseInputs(Collections.singletonList(input), relativeTo, ctx)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No quark for " + input.getPath()));
+    }
+
+    private SourceFile complete(Received received, @Nullable Path relativeTo, ExecutionContext ctx,
+                                ParsingEventListener parsingListener, AtomicLong minifiedFilesSkipped) {
+        Input input = received.input;
+        if (received.state == Received.State.SKIPPED) {
+            long skipped = minifiedFilesSkipped.incrementAndGet();
+            parsingListener.parsed(input, received.sourceFile);
+            if (parsingListener instanceof JavaScriptParsingEventListener) {
+                ((JavaScriptParsingEventListener) parsingListener).skippedMinified(input, skipped);
+            }
+            return received.sourceFile;
+        }
+        if (received.state == Received.State.CACHED) {
+            SourceFile cached = received.sourceFile.withFileAttributes(FileAttributes.fromPath(input.getPath()));
+            parsingListener.parsed(input, cached);
+            if (parsingListener instanceof JavaScriptParsingEventListener) {
+                ((JavaScriptParsingEventListener) parsingListener).lstCacheHit(input, received.cacheHits, received.cacheMisses);
+            }
+            return cached;
+        }
+
+        if (lstCache != null && parsingListener instanceof JavaScriptParsingEventListener) {
+            ((JavaScriptParsingEventListener) parsingListener).lstCacheMiss(input, received.cacheHits, received.cacheMisses);
+        }
+        for (Throwable error : received.errors) {
+            ctx.getOnError().accept(error);
+        }
+        if (received.state == Received.State.FAILED) {
+            return received.sourceFile;
+        }
+        if (parsingListener instanceof JavaScriptParsingEventListener) {
+            JavaScriptParsingEventListener listener = (JavaScriptParsingEventListener) parsingListener;
+            if (received.sessionTypes != null) {
+                listener.sessionTypesReused(input, received.sessionTypes.getTypes(), received.sessionTypes.getBytes());
+            }
+            if (received.interning != null) {
+                listener.whitespaceInterned(input, received.interning.getInterned(), received.interning.getSavedBytes());
+            }
+        }
+
+        SourceFile sourceFile = postProcess(received.sourceFile, input, relativeTo, ctx);
+        // type handles are only valid for the server session that parsed the tree
+        if (lstCache != null && received.cacheKey != null && !lazyTypes() && !(sourceFile instanceof ParseError)) {
+            lstCache.put(received.cacheKey, sourceFile);
+        }
+        return sourceFile;
+    }
+
+    private synchronized ExecutorService fetchExecutor() {
+        if (fetchExecutor == null) {
+            fetchExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "rewrite-javascript-fetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return fetchExecutor;
+    }
+
+    private List<Received> parse(List<Input> batch, @Nullable Server server, @Nullable Path relativeTo, ExecutionContext ctx) {
+        if (server == null) {
+            // the server could not be restarted after a timeout
+            List<Received> failed = new ArrayList<>(batch.size());
+            for (Input input : batch) {
+                failed.add(noServer(input, relativeTo, ctx));
+            }
+            return failed;
+        }
+
+        Received[] received = new Received[batch.size()];
+        List<Input> toParse = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Input input = batch.get(i);
+            if (!isSourceInput(input) && parseDeadlines.hasTimedOut(input.getPath())) {
+                // a file that missed its deadline would hold up every batch it is part of again
+                received[i] = timedOut(input, parseDeadlines.getTimeoutPerFile(), Duration.ZERO, relativeTo, ctx);
+            } else {
+                toParse.add(input);
+            }
+        }
+        return toParse.isEmpty() ? Arrays.asList(received) : merge(received, parseOnServer(toParse, server, relativeTo, ctx));
+    }
+
+    private List<Received> parseOnServer(List<Input> batch, Server server, @Nullable Path relativeTo, ExecutionContext ctx) {
+        List<Throwable> batchErrors = new ArrayList<>(0);
+        List<Received> received = null;
+        if (batchRequests && batch.size() > 1 && !Boolean.FALSE.equals(server.batchRequestsSupported)) {
+            received = parseBatch(batch, server, relativeTo, batchErrors, ctx);
+        }
+        if (received == null) {
+            received = new ArrayList<>(batch.size());
+            for (Input input : batch) {
+                // a timeout of the previous input may have replaced the server
+                Server current = this.server;
+                received.add(current == null ? noServer(input, relativeTo, ctx) : parseInput(input, current, relativeTo, ctx));
+            }
+        }
+        received.get(0).errors.addAll(0, batchErrors);
+        return received;
+    }
+
+    private Received noServer(Input input, @Nullable Path relativeTo, ExecutionContext ctx) {
+        IllegalStateException e = new IllegalStateException("No remoting server is running to parse " + input.getPath());
+        return new Received(input, ParseError.build(this, input, relativeTo, ctx, e), Received.State.FAILED).error(e);
+    }
+
+    /**
+     * Group the inputs into batches, which are requested from the server together and, with
+     * {@link Builder#batchRequests(boolean)}, sent to it in a single "parse-files" request so that
+     * it can build one program for all of them. A batch is closed once it reaches either
+     * the configured number of inputs or the configured number of bytes, whichever comes first.
+     */
+    private Iterator<List<Input>> batches(Stream<Input> inputs) {
+        Iterator<Input> iterator = inputs.iterator();
+        return new Iterator<List<Input>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<Input> next() {
+                List<Input> batch = new ArrayList<>();
+                long bytes = 0;
+                while (iterator.hasNext() && batch.size() < maxBatchSize && bytes < maxBatchBytes) {
+                    Input input = iterator.next();
+                    batch.add(input);
+                    bytes += estimateSize(input);
+                }
+                return batch;
+            }
+        };
+    }
+
+    private static long estimateSize(Input input) {
+        if (!isSourceInput(input)) {
+            try {
+                return Files.size(input.getPath());
+            } catch (IOException ignored) {
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isSourceInput(Input input) {
+        return input.isSynthetic() || !Files.isRegularFile(input.getPath());
+    }
+
+    /**
+     * @return the parsed trees in input order, or {@code null} when the batch could not be
+     * parsed as a whole and its inputs should be parsed one at a time instead. Batches are
+     * given up on for the rest of the server's life once it fails the first batch it is sent, or
+     * answers that it does not know "parse-files".
+     */
+    private @Nullable List<Received> parseBatch(List<Input> batch, Server server, @Nullable Path relativeTo,
+                                                List<Throwable> errors, ExecutionContext ctx) {
+        ParseDeadlines.Deadline deadline = parseDeadlines.startBatch();
+        try {
+            List<Received> parsed = server.connectionPool.withSession(errors::add, (client, session) -> {
+                RemotingContext receiving = receivingContext(client, session);
+                boolean compressed = compressing(server, client);
+                List<WhitespaceInterner.Tally> interning = new ArrayList<>(batch.size());
+                try {
+                    List<SourceFile> received = client.runUsingSocket((socket, messenger) -> requireNonNull(messenger.sendRequest(generator -> {
+                        deadline.arm(socket);
+                        generator.writeString("parse-files");
+                        if (relativeTo == null) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeString(relativeTo.toString());
+                        }
+                        generator.writeNumber(batch.size());
+                        for (Input input : batch) {
+                            if (isSourceInput(input)) {
+                                generator.writeString("source");
+                                try (EncodingDetectingInputStream is = input.getSource(ctx)) {
+                                    generator.writeString(is.readFully());
+                                }
                             } else {
-                                generator.writeString("parse-file");
+                                generator.writeString("file");
                                 generator.writeString(input.getPath().toString());
+                            }
+                        }
+                    }, parser -> {
+                        List<SourceFile> trees = new ArrayList<>(batch.size());
+                        for (int i = 0; i < batch.size(); i++) {
+                            WhitespaceInterner.Tally before = WhitespaceInterner.shared().tally();
+                            trees.add((SourceFile) PayloadCompression.receiveTree(receiving, parser, compressed));
+                            interning.add(WhitespaceInterner.shared().tally().minus(before));
+                        }
+                        return trees;
+                    }, socket)));
+                    List<Received> parsedBatch = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        parsedBatch.add(received(batch.get(i), received.get(i), session, interning.get(i), ctx));
+                    }
+                    return parsedBatch;
+                } finally {
+                    deadline.disarm();
+                    if (receiving == client.getContext()) {
+                        // NOTE: the trees of one batch share the remoting context
+                        client.getContext().reset();
+                    }
+                }
+            });
+            server.batchRequestsSupported = true;
+            return parsed;
+        } catch (Exception e) {
+            if (deadline.isExpired()) {
+                // the server keeps parsing the batch, so the inputs are parsed one at a time by a new one, each with
+                // its own deadline, which tells the file that held up the batch
+                restart(server, errors::add, ctx);
+                return null;
+            }
+            if (server.batchRequestsSupported == null || RemotingRequests.isUnknown(e)) {
+                // a server whose first batch fails is taken not to know the request, whatever its message
+                // says, while a later failure of a server that parsed batches before is only retried one
+                // input at a time
+                server.batchRequestsSupported = false;
+            }
+            return null;
+        }
+    }
+
+    private Received parseInput(Input input, Server server, @Nullable Path relativeTo, ExecutionContext ctx) {
+        ParseDeadlines.Deadline deadline = parseDeadlines.startFile();
+        List<Throwable> errors = new ArrayList<>(0);
+        try {
+            Received parsed = server.connectionPool.withSession(errors::add, (client, session) -> {
+                RemotingContext receiving = receivingContext(client, session);
+                boolean compressed = compressing(server, client);
+                List<WhitespaceInterner.Tally> interning = new ArrayList<>(1);
+                try {
+                    SourceFile received = client.runUsingSocket((socket, messenger) -> requireNonNull(messenger.sendRequest(generator -> {
+                        deadline.arm(socket);
+                        if (isSourceInput(input)) {
+                            generator.writeString("parse-source");
+                            try (EncodingDetectingInputStream is = input.getSource(ctx)) {
+                                generator.writeString(is.readFully());
+                            }
+                        } else {
+                            // the server reads the file itself, so it is not opened here
+                            generator.writeString("parse-file");
+                            generator.writeString(input.getPath().toString());
+                            if (relativeTo == null) {
+                                generator.writeNull();
+                            } else {
                                 generator.writeString(relativeTo.toString());
                             }
-                        }, parser -> {
-                            Tree tree = RemotingMessenger.receiveTree(remotingContext, parser,null);
-                            return (SourceFile) tree;
-                        }, socket)))
-                        .withFileAttributes(FileAttributes.fromPath(input.getPath()))
-                        .withCharset(getCharset(ctx));
-
-                if (parsed instanceof ParseError) {
-                    ctx.getOnError().accept(new AssertionError(parsed));
-                    return parsed;
+                        }
+                    }, parser -> {
+                        WhitespaceInterner.Tally before = WhitespaceInterner.shared().tally();
+                        Tree tree = PayloadCompression.receiveTree(receiving, parser, compressed);
+                        interning.add(WhitespaceInterner.shared().tally().minus(before));
+                        return (SourceFile) tree;
+                    }, socket)));
+                    return received(input, received, session, interning.get(0), ctx);
+                } finally {
+                    deadline.disarm();
+                    if (receiving == client.getContext()) {
+                        // NOTE: this is because we parse one source at the time
+                        client.getContext().reset();
+                    }
                 }
+            });
+            parsed.errors.addAll(0, errors);
+            return parsed;
+        } catch (Throwable t) {
+            if (deadline.isExpired()) {
+                if (!isSourceInput(input)) {
+                    parseDeadlines.recordTimeout(input.getPath(), deadline);
+                }
+                // the server cannot be interrupted while it parses, so it is replaced rather than waited for
+                restart(server, errors::add, ctx);
+                Received timedOut = timedOut(input, deadline.getTimeout(), deadline.getElapsed(), relativeTo, ctx);
+                timedOut.errors.addAll(0, errors);
+                return timedOut;
+            }
+            errors.add(t);
+            Received failed = new Received(input, ParseError.build(this, input, relativeTo, ctx, t), Received.State.FAILED);
+            failed.errors.addAll(errors);
+            return failed;
+        }
+    }
 
-                JS.CompilationUnit js = (JS.CompilationUnit) parsed;
-                parsingListener.parsed(input, js);
-                SourceFile sourceFile = validate(js, input, relativeTo, ctx);
-                if (sourceFile instanceof ParseError) {
-                    return ((ParseError) sourceFile).withErroneous(null);
+    /**
+     * Agree on a session-scoped type table once per connection. A server that rejects it or does not
+     * know the request keeps getting its trees received into the context of the connection, which is
+     * reset after every request. Any other failure leaves the connection in an unknown state, so it is
+     * thrown for the pool to discard the connection.
+     */
+    private RemotingContext receivingContext(RemotingClient client, RemotingTypeSession session) {
+        if (!sessionTypeTable || Boolean.FALSE.equals(session.getSupported())) {
+            return client.getContext();
+        }
+        if (session.getSupported() == null) {
+            boolean accepted;
+            try {
+                accepted = client.runUsingSocket((socket, messenger) -> Boolean.TRUE.equals(messenger.sendRequest(
+                        generator -> generator.writeString("session-types"),
+                        parser -> parser.nextBooleanValue(), socket)));
+            } catch (RuntimeException e) {
+                if (!RemotingRequests.isUnknown(e)) {
+                    throw e;
                 }
-                return sourceFile;
-            } catch (Throwable t) {
-                ctx.getOnError().accept(t);
-                return ParseError.build(this, input, relativeTo, ctx, t);
-            } finally {
-                // NOTE: this is because we parse one source at the time
-                client.getContext().reset();
+                accepted = false;
+            }
+            session.setSupported(accepted);
+            if (!accepted) {
+                return client.getContext();
             }
-        });
+        }
+        return session.getContext();
+    }
+
+    /**
+     * Record what the session and the whitespace pool saved on the tree received for {@code input}, which is
+     * reported to the parsing listener once the tree is consumed.
+     */
+    private Received received(Input input, SourceFile sourceFile, RemotingTypeSession session,
+                              WhitespaceInterner.Tally interning, ExecutionContext ctx) {
+        Received received = new Received(input, sourceFile, Received.State.RECEIVED);
+        boolean listening = ParsingExecutionContextView.view(ctx).getParsingListener() instanceof JavaScriptParsingEventListener;
+        if (Boolean.TRUE.equals(session.getSupported())) {
+            session.received();
+            if (listening) {
+                received.sessionTypes = session.record(sourceFile);
+            }
+        }
+        received.interning = interning;
+        return received;
+    }
+
+    private Received timedOut(Input input, Duration timeout, Duration elapsed, @Nullable Path relativeTo, ExecutionContext ctx) {
+        TimeoutException e = new TimeoutException(input.getPath() + " was not parsed within " + timeout.toMillis() + "ms");
+        ParseError parseError = ParseError.build(this, input, relativeTo, ctx, e);
+        return new Received(input, parseError.withMarkers(parseError.getMarkers()
+                .add(new ParseTimeout(Tree.randomId(), elapsed, timeout))), Received.State.FAILED).error(e);
+    }
+
+    /**
+     * Replace {@code failed} by a newly started server, unless it has been replaced already.
+     */
+    private synchronized void restart(Server failed, Consumer<Throwable> onError, ExecutionContext ctx) {
+        if (server != failed) {
+            return;
+        }
+        server = null;
+        failed.close(true);
+        try {
+            server = start(ctx);
+        } catch (IOException e) {
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * Attribute the types of a tree parsed with {@link Builder#lazyTypeAttribution(boolean)}, replacing
+     * the type handles in it with the types they stand for. All handles of the tree are resolved with a
+     * single request to the server that parsed it, which keeps them resolvable until it is reset.
+     *
+     * @throws IllegalStateException if the server fails to resolve the handles, or if they can no longer be
+     *                               resolved because the server has been restarted or reset since.
+     */
+    public <S extends SourceFile> S attributeTypes(S sourceFile) {
+        Set<String> handles = JavaScriptTypeHandles.collect(sourceFile);
+        return handles.isEmpty() ? sourceFile : JavaScriptTypeHandles.replace(sourceFile, resolveTypes(handles));
+    }
+
+    /**
+     * @return The type {@code type} stands for if it is a type handle, and {@code type} itself otherwise.
+     * @throws IllegalStateException if the handle can no longer be resolved.
+     */
+    public @Nullable JavaType resolveType(@Nullable JavaType type) {
+        String handle = JavaScriptTypeHandles.handle(type);
+        return handle == null ? type : resolveTypes(Collections.singleton(handle)).get(handle);
+    }
+
+    private Map<String, @Nullable JavaType> resolveTypes(Collection<String> handles) {
+        Map<String, @Nullable JavaType> resolved = new HashMap<>(handles.size());
+        List<String> misses = new ArrayList<>();
+        for (String handle : handles) {
+            JavaType type = resolvedTypes.get(handle);
+            if (type != null) {
+                resolved.put(handle, type);
+            } else {
+                misses.add(handle);
+            }
+        }
+        if (misses.isEmpty()) {
+            return resolved;
+        }
+        Server current = server;
+        if (current == null || !current.lazyTypes) {
+            // handles of a server that is gone, which no other server can resolve
+            throw new IllegalStateException("Failed to resolve " + misses.size() + " type handles, the server that parsed them is gone");
+        }
+
+        try {
+            List<@Nullable JavaType> types = current.connectionPool.withClient(client -> {
+                try {
+                    return client.runUsingSocket((socket, messenger) -> requireNonNull(messenger.sendRequest(generator -> {
+                        generator.writeString("resolve-types");
+                        generator.writeNumber(misses.size());
+                        for (String handle : misses) {
+                            generator.writeString(handle);
+                        }
+                    }, parser -> {
+                        List<@Nullable JavaType> received = new ArrayList<>(misses.size());
+                        for (int i = 0; i < misses.size(); i++) {
+                            received.add(JavaScriptTypeHandles.read(parser));
+                        }
+                        return received;
+                    }, socket)));
+                } finally {
+                    client.getContext().reset();
+                }
+            });
+            for (int i = 0; i < misses.size(); i++) {
+                JavaType type = types.get(i);
+                resolved.put(misses.get(i), type);
+                if (type != null) {
+                    resolvedTypes.put(misses.get(i), type);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to resolve " + misses.size() + " type handles", e);
+        }
+        return resolved;
+    }
+
+    private boolean lazyTypes() {
+        Server current = server;
+        return lazyTypeAttribution && (current == null || current.lazyTypes);
+    }
+
+    /**
+     * Ask a server started for lazy type attribution whether it resolves type handles. A server which does
+     * not know the request attributes the types of its trees while parsing them, as it ignores the setting.
+     */
+    private static boolean resolvesTypes(RemotingConnectionPool connectionPool) throws IOException {
+        try {
+            return connectionPool.withClient(client -> {
+                try {
+                    return client.runUsingSocket((socket, messenger) -> requireNonNull(messenger.sendRequest(generator -> {
+                        generator.writeString("resolve-types");
+                        generator.writeNumber(0);
+                    }, parser -> Boolean.TRUE, socket)));
+                } finally {
+                    client.getContext().reset();
+                }
+            });
+        } catch (Exception e) {
+            if (RemotingRequests.isUnknown(e)) {
+                return false;
+            }
+            throw new IOException("Failed to ask the server whether it resolves type handles", e);
+        }
+    }
+
+    /**
+     * Agree on compressing large trees once per connection. A server that rejects it keeps sending its trees
+     * as they are, and once a server answers that it does not know the request, none of its other connections
+     * asks again.
+     */
+    private boolean compressing(Server server, RemotingClient client) {
+        if (compressionThreshold <= 0 || server.compressionUnsupported) {
+            return false;
+        }
+        synchronized (server.compressingClients) {
+            Boolean compressing = server.compressingClients.get(client);
+            if (compressing != null) {
+                return compressing;
+            }
+        }
+        boolean accepted;
+        try {
+            accepted = client.runUsingSocket((socket, messenger) -> Boolean.TRUE.equals(messenger.sendRequest(generator -> {
+                generator.writeString("compression");
+                generator.writeString(PayloadCompression.CODEC);
+                generator.writeNumber(compressionThreshold);
+            }, parser -> parser.nextBooleanValue(), socket)));
+        } catch (RuntimeException e) {
+            if (!RemotingRequests.isUnknown(e)) {
+                throw e;
+            }
+            server.compressionUnsupported = true;
+            accepted = false;
+        }
+        synchronized (server.compressingClients) {
+            server.compressingClients.put(client, accepted);
+        }
+        return accepted;
+    }
+
+    private SourceFile postProcess(SourceFile parsed, Input input, @Nullable Path relativeTo, ExecutionContext ctx) {
+        try {
+            parsed = parsed
+                    .withFileAttributes(FileAttributes.fromPath(input.getPath()))
+                    .withCharset(getCharset(ctx));
+
+            if (parsed instanceof ParseError) {
+                ctx.getOnError().accept(new AssertionError(parsed));
+                return parsed;
+            }
+
+            JS.CompilationUnit js = (JS.CompilationUnit) parsed;
+            ParsingExecutionContextView.view(ctx).getParsingListener().parsed(input, js);
+            SourceFile sourceFile = validate(js, input, relativeTo, ctx);
+            if (sourceFile instanceof ParseError) {
+                return ((ParseError) sourceFile).withErroneous(null);
+            }
+            return sourceFile;
+        } catch (Throwable t) {
+            ctx.getOnError().accept(t);
+            return ParseError.build(this, input, relativeTo, ctx, t);
+        }
     }
 
     private SourceFile validate(JS.CompilationUnit sourceFile, Input input, @Nullable Path relativeTo, ExecutionContext ctx) {
-        assert remotingContext != null;
+        long start = System.nanoTime();
+        SourceFile validated;
         Validator validator = remotingContext.getProvider(sourceFile.getClass()).newValidator();
         try {
             validator.validate(sourceFile, ctx);
+            validated = checkPrintIdempotence(sourceFile, input, relativeTo, ctx);
         } catch (Exception e) {
-            return ParseError.build(this, input, relativeTo, ctx, e);
+            validated = ParseError.build(this, input, relativeTo, ctx, e);
+        }
+        ParsingEventListener parsingListener = ParsingExecutionContextView.view(ctx).getParsingListener();
+        if (parsingListener instanceof JavaScriptParsingEventListener) {
+            ((JavaScriptParsingEventListener) parsingListener).validated(input, validated, Duration.ofNanos(System.nanoTime() - start));
+        }
+        return validated;
+    }
+
+    private SourceFile checkPrintIdempotence(JS.CompilationUnit sourceFile, Input input, @Nullable Path relativeTo, ExecutionContext ctx) {
+        switch (printIdempotenceCheck) {
+            case SAMPLED:
+                // sample by path, so that the same files are checked on every run
+                int bucket = Math.floorMod(input.getPath().toString().hashCode(), 10_000);
+                if (bucket >= printIdempotenceSamplePercentage * 100) {
+                    return sourceFile;
+                }
+                return requirePrintEqualsInput(sourceFile, input, relativeTo, ctx);
+            case HASH:
+                if (!ctx.getMessage(ExecutionContext.REQUIRE_PRINT_EQUALS_INPUT, true)) {
+                    return sourceFile;
+                }
+                byte[] expected;
+                try (EncodingDetectingInputStream is = input.getSource(ctx)) {
+                    expected = HashingPrintOutputCapture.hash(is.readFully());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (Arrays.equals(expected, HashingPrintOutputCapture.hash(sourceFile))) {
+                    return sourceFile;
+                }
+                // only print to a String to report the difference
+                return requirePrintEqualsInput(sourceFile, input, relativeTo, ctx);
+            case ALWAYS:
+            default:
+                return requirePrintEqualsInput(sourceFile, input, relativeTo, ctx);
+        }
+    }
+
+    /**
+     * A tree taken from the LST cache or received from the server, which is post-processed
+     * once the consumer of {@link #parseInputs(Iterable, Path, ExecutionContext)} gets to it.
+     */
+    private static class Received {
+        enum State {
+            SKIPPED,
+            CACHED,
+            RECEIVED,
+            FAILED
+        }
+
+        final Input input;
+        final SourceFile sourceFile;
+        final State state;
+
+        @Nullable
+        String cacheKey;
+
+        long cacheHits;
+        long cacheMisses;
+
+        /**
+         * What the tree saved when it was received, and the errors of its request, which are
+         * reported once the tree is consumed rather than on the thread that fetched it.
+         */
+        RemotingTypeSession.@Nullable Reuse sessionTypes;
+        WhitespaceInterner.@Nullable Tally interning;
+        final List<Throwable> errors = new ArrayList<>(0);
+
+        Received(Input input, SourceFile sourceFile, State state) {
+            this.input = input;
+            this.sourceFile = sourceFile;
+            this.state = state;
+        }
+
+        Received(Input input, SourceFile sourceFile, State state, long cacheHits, long cacheMisses) {
+            this(input, sourceFile, state);
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+        }
+
+        Received error(Throwable t) {
+            errors.add(t);
+            return this;
+        }
+    }
+
+    /**
+     * A server process, if it was started by this parser, and the connections to it, which are
+     * replaced together when the server is restarted.
+     */
+    private static class Server {
+        final @Nullable Process process;
+        final RemotingConnectionPool connectionPool;
+        final boolean lazyTypes;
+
+        /**
+         * Connections of the pool which were asked to compress, weakly held as the pool replaces its connections.
+         */
+        final Map<RemotingClient, Boolean> compressingClients = new WeakHashMap<>();
+        volatile boolean compressionUnsupported;
+
+        /**
+         * Whether the server parses "parse-files" requests, which is only known once it answered the first one.
+         */
+        volatile @Nullable Boolean batchRequestsSupported;
+
+        Server(@Nullable Process process, RemotingConnectionPool connectionPool, boolean lazyTypes) {
+            this.process = process;
+            this.connectionPool = connectionPool;
+            this.lazyTypes = lazyTypes;
+        }
+
+        boolean isHealthy() {
+            return connectionPool.isHealthy() && (process == null || process.isAlive());
+        }
+
+        void close(boolean forcibly) {
+            connectionPool.close();
+            if (process == null) {
+                return;
+            }
+            if (!forcibly) {
+                process.destroy();
+                return;
+            }
+            try {
+                process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class InFlight {
+        final CompletableFuture<List<Received>> received;
+        final long bytes;
+
+        InFlight(CompletableFuture<List<Received>> received, long bytes) {
+            this.received = received;
+            this.bytes = bytes;
         }
-        return requirePrintEqualsInput(sourceFile, input, relativeTo, ctx);
     }
 
     private final static List<String> EXTENSIONS = Collections.unmodifiableList(Arrays.asList(
@@ -182,17 +973,19 @@ public class JavaScriptParser implements Parser {
     }
 
     @Override
-    public JavaScriptParser reset() {
+    public synchronized JavaScriptParser reset() {
         typeCache.clear();
-        if (remotingContext != null) {
-            remotingContext.reset();
-            remotingContext = null;
+        resolvedTypes.clear();
+        remotingContext.reset();
+        if (server != null) {
+            server.close(false);
+            server = null;
         }
-        if (nodeProcess != null) {
-            nodeProcess.destroy();
-            nodeProcess = null;
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+            fetchExecutor = null;
         }
-        client = null;
+        parseDeadlines.close();
         return this;
     }
 
@@ -205,18 +998,28 @@ public class JavaScriptParser implements Parser {
     }
 
     private static Builder verifyRemotingInstallation(Path dir) throws IOException, InterruptedException {
-        if (!Files.isDirectory(dir, new LinkOption[0])) {
-            Files.createDirectories(dir);
-        }
+        // no node_modules archive is shipped with this jar, so the server is always installed with npm
+        RemotingServerInstallation.install(JavaScriptParser.class.getClassLoader(),
+                "META-INF/package.json", "META-INF/node_modules.zip", dir, false);
+        return new Builder().installationDir(dir);
+    }
 
-        exportResource("META-INF/package.json", dir.toFile());
+    public enum PrintIdempotenceCheck {
+        /**
+         * Print every file to a String and compare it to its source.
+         */
+        ALWAYS,
 
-        List<String> command = new ArrayList(Arrays.asList("npm", "update", "--force"));
-        ProcessBuilder processBuilder = new ProcessBuilder(command);
-        Process process = processBuilder.directory(dir.toFile()).start();
-        int exitCode = process.waitFor();
+        /**
+         * Like {@link #ALWAYS}, but only for a sample of the files.
+         */
+        SAMPLED,
 
-        return new Builder().installationDir(dir);
+        /**
+         * Compare digests of the printed tree and the source, only printing to a String
+         * to report a difference.
+         */
+        HASH
     }
 
     public static Builder builder() {
@@ -229,6 +1032,25 @@ public class JavaScriptParser implements Parser {
         private final Collection<NamedStyles> styles = new ArrayList<>();
         private List<Path> nodePath = new ArrayList<>();
         private Path installationDir;
+        private int serverPort;
+        private int maxConnections = 1;
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+        private int maxBatchSize = 256;
+        private long maxBatchBytes = 8 * 1024 * 1024;
+        private boolean batchRequests;
+        private @Nullable Path lstCacheDir;
+        private long lstCacheMaxBytes = 1024L * 1024 * 1024;
+        private long maxInFlightBytes = 32 * 1024 * 1024;
+        private PrintIdempotenceCheck printIdempotenceCheck = PrintIdempotenceCheck.ALWAYS;
+        private double printIdempotenceSamplePercentage = 100;
+        private Duration parseTimeout = Duration.ofMinutes(2);
+        private Duration batchParseTimeout = Duration.ofMinutes(10);
+        private boolean skipMinifiedFiles;
+        private boolean syntaxOnly;
+        private boolean lazyTypeAttribution;
+        private boolean sessionTypeTable;
+        private boolean declarationCache;
+        private long compressionThreshold;
 
         public Builder() {
             super(JS.CompilationUnit.class);
@@ -261,10 +1083,183 @@ public class JavaScriptParser implements Parser {
             return this;
         }
 
+        /**
+         * Connect to a server already listening on {@code serverPort}, or start one on it. By default,
+         * a new server is started on a free port.
+         */
+        public Builder serverPort(int serverPort) {
+            this.serverPort = serverPort;
+            return this;
+        }
+
+        /**
+         * The number of connections kept open to the server. The parser requests one batch at a time,
+         * so more than one connection only helps callers that share the parser between threads.
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder healthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+            return this;
+        }
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder maxBatchBytes(long maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        /**
+         * Send the inputs of a batch to the server in a single "parse-files" request rather than one request
+         * per input. The bundled server does not know the request yet, so this is disabled by default. A server
+         * that fails the first batch it is sent is sent one input at a time from then on.
+         */
+        public Builder batchRequests(boolean batchRequests) {
+            this.batchRequests = batchRequests;
+            return this;
+        }
+
+        /**
+         * Have the server deflate the trees it sends over the socket once they serialize to at least
+         * {@code compressionThreshold} bytes. Disabled by default, and only used with servers that agree
+         * to it when the connection is first used.
+         */
+        public Builder compressionThreshold(long compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * Bound the bytes of input the server may be parsing ahead of the consumer of the parsed
+         * source files. A budget of {@code 0} parses each batch only once it is consumed.
+         */
+        public Builder maxInFlightBytes(long maxInFlightBytes) {
+            this.maxInFlightBytes = maxInFlightBytes;
+            return this;
+        }
+
+        public Builder printIdempotenceCheck(PrintIdempotenceCheck printIdempotenceCheck) {
+            this.printIdempotenceCheck = printIdempotenceCheck;
+            return this;
+        }
+
+        /**
+         * Check the print idempotence of roughly {@code percentage} percent of the files. The selection
+         * depends only on the path of a file.
+         *
+         * @throws IllegalArgumentException if {@code percentage} is not between 0 and 100.
+         */
+        public Builder printIdempotenceSampled(double percentage) {
+            if (!(percentage >= 0 && percentage <= 100)) {
+                throw new IllegalArgumentException("The sampled percentage must be between 0 and 100, but was " + percentage);
+            }
+            this.printIdempotenceCheck = PrintIdempotenceCheck.SAMPLED;
+            this.printIdempotenceSamplePercentage = percentage;
+            return this;
+        }
+
+        /**
+         * The time the server may spend on a single file before the file is given up on as a
+         * {@link ParseError} and the server process is restarted. {@link Duration#ZERO} disables the deadline.
+         */
+        public Builder parseTimeout(Duration parseTimeout) {
+            this.parseTimeout = parseTimeout;
+            return this;
+        }
+
+        /**
+         * The time the server may spend on a batch of files, no matter how many files it holds. The files
+         * of a batch that missed its deadline are parsed one at a time, each with {@link #parseTimeout(Duration)},
+         * and a file that misses its own deadline is not sent to the server again. {@link Duration#ZERO}
+         * disables the deadline.
+         */
+        public Builder batchParseTimeout(Duration batchParseTimeout) {
+            this.batchParseTimeout = batchParseTimeout;
+            return this;
+        }
+
+        /**
+         * Represent minified and bundled files by a {@link org.openrewrite.quark.Quark} instead of parsing them.
+         * Disabled by default, so that every file is parsed into a tree as before.
+         */
+        public Builder skipMinifiedFiles(boolean skipMinifiedFiles) {
+            this.skipMinifiedFiles = skipMinifiedFiles;
+            return this;
+        }
+
+        /**
+         * Parse without building a type checker, for recipes which do not look at types. The trees carry
+         * no type attribution. Only applies to a server started by this parser.
+         */
+        public Builder syntaxOnly(boolean syntaxOnly) {
+            this.syntaxOnly = syntaxOnly;
+            return this;
+        }
+
+        /**
+         * Represent types by handles which are only attributed once they are requested through
+         * {@link JavaScriptParser#attributeTypes(SourceFile)} or {@link JavaScriptParser#resolveType(JavaType)},
+         * for recipes which only look at the types of a few files. Trees parsed this way are not written to the
+         * LST cache. Only applies to a server started by this parser, and a server which does not resolve type
+         * handles attributes the types while parsing as if this was disabled.
+         */
+        public Builder lazyTypeAttribution(boolean lazyTypeAttribution) {
+            this.lazyTypeAttribution = lazyTypeAttribution;
+            return this;
+        }
+
+        /**
+         * Keep the types received on a connection for as long as the connection lives, so that the server
+         * sends every distinct type once rather than once per file and the trees of a run share the same
+         * type instances. Disabled by default, and only used with servers that support it.
+         */
+        public Builder sessionTypeTable(boolean sessionTypeTable) {
+            this.sessionTypeTable = sessionTypeTable;
+            return this;
+        }
+
+        /**
+         * Let the server persist the declaration files of the compiler and of lockfile-pinned dependencies in the
+         * installation directory, so that later runs read the files of a package from a single file. Only the text
+         * is cached, the files are still parsed in every run. Disabled by default. Only applies to a server started
+         * by this parser.
+         */
+        public Builder declarationCache(boolean declarationCache) {
+            this.declarationCache = declarationCache;
+            return this;
+        }
+
+        /**
+         * Serve unchanged files from an on-disk cache of previously parsed trees.
+         *
+         * @param lstCacheDir      The directory holding the cache entries.
+         * @param lstCacheMaxBytes The size the cache directory may grow to before the least recently used entries are evicted.
+         */
+        public Builder lstCache(Path lstCacheDir, long lstCacheMaxBytes) {
+            this.lstCacheDir = lstCacheDir;
+            this.lstCacheMaxBytes = lstCacheMaxBytes;
+            return this;
+        }
+
         @Override
         public JavaScriptParser build() {
             return new JavaScriptParser(styles, logCompilationWarningsAndErrors,
-                    typeCache, nodePath, installationDir);
+                    typeCache, nodePath, installationDir, serverPort, maxConnections, healthCheckInterval,
+                    maxBatchSize, maxBatchBytes, batchRequests,
+                    lstCacheDir == null ? null : new JavaScriptLstCache(
+                            // trees without type attribution must not be served to a parser that attributes types
+                            syntaxOnly ? lstCacheDir.resolve("syntax-only") : lstCacheDir,
+                            lstCacheMaxBytes, JavaScriptParser.class.getClassLoader()),
+                    maxInFlightBytes, printIdempotenceCheck, printIdempotenceSamplePercentage,
+                    new ParseDeadlines(parseTimeout, batchParseTimeout), skipMinifiedFiles, syntaxOnly,
+                    lazyTypeAttribution && !syntaxOnly, sessionTypeTable, declarationCache, compressionThreshold);
         }
 
         @Override
@@ -273,118 +1268,96 @@ public class JavaScriptParser implements Parser {
         }
     }
 
-    private static void exportResource(String resourceName, File outputDir) throws IOException {
-        try (InputStream stream = JavaScriptParser.class.getClassLoader().getResourceAsStream(resourceName)) {
-            if(stream == null) {
-                throw new IllegalArgumentException("Cannot get resource \"" + resourceName + "\" from Jar " +
-                        "file.");
-            }
-
-            int readBytes;
-            byte[] buffer = new byte[4096];
-            try (
-                OutputStream resStreamOut =
-                        Files.newOutputStream(Paths.get(outputDir.getPath(),
-                                Paths.get(resourceName).getFileName().toString()))) {
-
-                while ((readBytes = stream.read(buffer)) > 0) {
-                    resStreamOut.write(buffer, 0, readBytes);
-                }
-                resStreamOut.flush();
-            }
+    private synchronized boolean ensureServerRunning(ExecutionContext ctx) {
+        // the pool verifies idle connections in the background, so a healthy pool
+        // does not need another round-trip to the server before every batch
+        Server current = server;
+        if (current != null && current.isHealthy()) {
+            return true;
         }
-    }
-
-    private boolean ensureServerRunning(ExecutionContext ctx) {
-        if (client == null || !isAlive()) {
-            try {
-                initializeRemoting(ctx);
-            } catch (IOException e) {
-                return false;
-            }
-        } else {
-            requireNonNull(remotingContext).reset();
+        server = null;
+        if (current != null) {
+            current.close(false);
         }
-        return client != null && isAlive();
-    }
-
-    private boolean isAlive() {
         try {
-            return requireNonNull(client).runUsingSocket((socket, messenger) -> {
-                messenger.sendReset(socket);
-                return true;
-            });
-        } catch (Exception e) {
+            current = start(ctx);
+        } catch (IOException e) {
             return false;
         }
+        server = current;
+        return current.connectionPool.ping();
     }
 
-    private void initializeRemoting(ExecutionContext ctx) throws IOException {
-        RemotingExecutionContextView view = RemotingExecutionContextView.view(ctx);
-        remotingContext = view.getRemotingContext();
-        if (remotingContext == null) {
-            remotingContext = new RemotingContext(JavaScriptParser.class.getClassLoader(), false);
-            view.setRemotingContext(remotingContext);
-        } else {
-            remotingContext.reset();
-        }
+    private Server start(ExecutionContext ctx) throws IOException {
+        // handles are numbered per server process, so a restarted server reuses them for other types
+        resolvedTypes.clear();
 
-        int port = 54323;
-        if (!isServerRunning(port)) {
-            ProcessBuilder processBuilder = new ProcessBuilder("node",
-                    "node_modules/@openrewrite/rewrite-remote/dist/server.js",
-                    Integer.toString(port));
+        Process process = null;
+        int port = serverPort;
+        if (port <= 0 || !isServerRunning(port)) {
+            ProcessBuilder processBuilder = new ProcessBuilder();
             if (!nodePath.isEmpty()) {
                 Map<String, String> environment = processBuilder.environment();
                 environment.compute("NODE_PATH", (k, current) ->
                         (current != null ? current + File.pathSeparator : "") + nodePath.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
             }
+            if (syntaxOnly) {
+                processBuilder.environment().put(RemotingServerEnvironment.SYNTAX_ONLY, "true");
+            } else if (lazyTypeAttribution) {
+                processBuilder.environment().put(RemotingServerEnvironment.LAZY_TYPES, "true");
+            }
+            if (declarationCache && !syntaxOnly) {
+                processBuilder.environment().put(RemotingServerEnvironment.DECLARATION_CACHE,
+                        installationDir.resolve("declaration-cache").toString());
+            }
 
             processBuilder.directory(installationDir.toFile());
 
+            // standard output is read for the ready handshake
             if (System.getProperty("os.name").startsWith("Windows")) {
-                processBuilder.redirectOutput(new File("NUL"));
                 processBuilder.redirectError(new File("NUL"));
             } else {
-                processBuilder.redirectOutput(new File("/dev/null"));
                 processBuilder.redirectError(new File("/dev/null"));
             }
-            nodeProcess = processBuilder.start();
-            for (int i = 0; i < 30 && nodeProcess.isAlive(); i++) {
-                if (isServerRunning(port)) {
-                    break;
-                }
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException ignore) {
-                }
-            }
-
-            if (nodeProcess == null || !nodeProcess.isAlive()) {
-                remotingContext = null;
-                return;
-            }
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                if (nodeProcess != null && nodeProcess.isAlive()) {
-                    nodeProcess.destroy();
-                }
-            }));
+            RemotingServerHandshake.Server started = RemotingServerHandshake.start(processBuilder, listening -> Arrays.asList("node",
+                    "node_modules/@openrewrite/rewrite-remote/dist/server.js",
+                    Integer.toString(listening)), port, Duration.ofSeconds(30), JavaScriptParser::answersReset);
+            process = started.getProcess();
+            port = started.getPort();
         }
 
-        client = RemotingClient.create(ctx, JavaScriptParser.class, () -> {
-            try {
-                return new Socket(InetAddress.getLoopbackAddress(), port);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
+        int listeningPort = port;
+        RemotingConnectionPool connectionPool = new RemotingConnectionPool(ctx, JavaScriptParser.class,
+                () -> new Socket(InetAddress.getLoopbackAddress(), listeningPort),
+                maxConnections, Duration.ofMinutes(1), healthCheckInterval);
+        try {
+            return new Server(process, connectionPool, lazyTypeAttribution && process != null && resolvesTypes(connectionPool));
+        } catch (IOException e) {
+            connectionPool.close();
+            if (process != null) {
+                process.destroy();
             }
-        });
+            throw e;
+        }
     }
 
     public static boolean isServerRunning(int port) {
-        try (Socket ignored = new Socket(InetAddress.getLoopbackAddress(), port)) {
-            return true;
-        } catch (IOException e) {
-            return false;
+        return RemotingServerHandshake.isListening(port);
+    }
+
+    /**
+     * @return {@code true} if a remoting server answers a reset on {@code port}, rather than any other process
+     * that accepts connections on it.
+     */
+    private static boolean answersReset(int port) {
+        try (RemotingConnectionPool connectionPool = new RemotingConnectionPool(new InMemoryExecutionContext(), JavaScriptParser.class,
+                () -> {
+                    Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                    // a process that speaks another protocol may never answer
+                    socket.setSoTimeout((int) Duration.ofSeconds(5).toMillis());
+                    return socket;
+                }, 1, Duration.ofSeconds(5), Duration.ofMinutes(1))) {
+            return connectionPool.ping();
         }
     }
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript;
+
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.tree.ParsingEventListener;
+
+import java.time.Duration;
+
+/**
+ * A {@link ParsingEventListener} that additionally receives the events which are
+ * specific to the {@link JavaScriptParser}. Register it through
+ * {@link org.openrewrite.tree.ParsingExecutionContextView#setParsingListener(ParsingEventListener)}.
+ * <p>
+ * The parser requests trees from the server on a thread of its own, ahead of the consumer of the
+ * parsed source files. Events about those requests are still delivered on the consumer's thread, once
+ * it gets to the source file they are about, so a listener does not have to be thread-safe.
+ */
+public interface JavaScriptParsingEventListener extends ParsingEventListener {
+
+    /**
+     * The tree for {@code input} was served from the on-disk LST cache without contacting the server.
+     *
+     * @param hits   The total number of cache hits so far.
+     * @param misses The total number of cache misses so far.
+     */
+    default void lstCacheHit(Parser.Input input, long hits, long misses) {
+    }
+
+    /**
+     * The tree for {@code input} was not in the on-disk LST cache and has to be parsed.
+     *
+     * @param hits   The total number of cache hits so far.
+     * @param misses The total number of cache misses so far.
+     */
+    default void lstCacheMiss(Parser.Input input, long hits, long misses) {
+    }
+
+    /**
+     * The tree received for {@code input} was validated, including the configured print idempotence check.
+     *
+     * @param sourceFile The validated source file, or a {@link org.openrewrite.tree.ParseError} if validation failed.
+     * @param elapsed    The time spent validating.
+     */
+    default void validated(Parser.Input input, SourceFile sourceFile, Duration elapsed) {
+    }
+
+    /**
+     * {@code input} was classified as minified or bundled and is represented by a
+     * {@link org.openrewrite.quark.Quark} instead of being parsed.
+     *
+     * @param skipped The number of files skipped so far by the same call to parse.
+     */
+    default void skippedMinified(Parser.Input input, long skipped) {
+    }
+
+    /**
+     * The tree for {@code input} was received on a connection with a session-scoped type table.
+     *
+     * @param reusedTypes The number of distinct types of the tree which were received with an earlier tree
+     *                    of the session, and so were neither sent nor materialized again.
+     * @param reusedBytes An estimate of the bytes those types would have taken on the wire.
+     */
+    default void sessionTypesReused(Parser.Input input, int reusedTypes, long reusedBytes) {
+    }
+
+    /**
+     * The tree for {@code input} was received with its whitespace and comment strings pooled.
+     *
+     * @param interned   The number of spaces and strings of the tree which were replaced by a pooled instance.
+     * @param savedBytes An estimate of the heap the replaced instances would have taken.
+     */
+    default void whitespaceInterned(Parser.Input input, long interned, long savedBytes) {
+    }
+}
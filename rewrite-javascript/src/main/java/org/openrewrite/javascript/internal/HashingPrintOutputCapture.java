@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
+import org.openrewrite.PrintOutputCapture;
+import org.openrewrite.SourceFile;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Prints a tree into a digest instead of a {@link StringBuilder}, so that the print idempotence
+ * of a source file can be checked without holding its printed form in memory.
+ * <p>
+ * Printers may also write to {@link #out} directly, as the printers of markers do. Whatever they
+ * wrote is hashed and cleared before the next character is appended, so that it is hashed in the
+ * order it was printed in, and {@link #out} only ever holds the output of a single marker.
+ */
+public class HashingPrintOutputCapture extends PrintOutputCapture<Integer> {
+
+    private final MessageDigest digest = sha256();
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    public HashingPrintOutputCapture() {
+        super(0);
+    }
+
+    /**
+     * @return The digest of the printed form of {@code sourceFile}.
+     */
+    public static byte[] hash(SourceFile sourceFile) {
+        HashingPrintOutputCapture capture = new HashingPrintOutputCapture();
+        sourceFile.<Integer>printer(new Cursor(null, Cursor.ROOT_VALUE)).visit(sourceFile, capture);
+        return capture.digest();
+    }
+
+    /**
+     * @return The digest of {@code text}, comparable to the digest of a printed tree.
+     */
+    public static byte[] hash(CharSequence text) {
+        HashingPrintOutputCapture capture = new HashingPrintOutputCapture();
+        for (int i = 0; i < text.length(); i++) {
+            capture.append(text.charAt(i));
+        }
+        return capture.digest();
+    }
+
+    @Override
+    public PrintOutputCapture<Integer> append(@Nullable String text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                append(text.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public PrintOutputCapture<Integer> append(char c) {
+        drainOut();
+        update(c);
+        return this;
+    }
+
+    public byte[] digest() {
+        drainOut();
+        flush();
+        return digest.digest();
+    }
+
+    private void drainOut() {
+        if (out.length() > 0) {
+            for (int i = 0; i < out.length(); i++) {
+                update(out.charAt(i));
+            }
+            out.setLength(0);
+        }
+    }
+
+    private void update(char c) {
+        if (position == buffer.length) {
+            flush();
+        }
+        // UTF-16 code units, so that split surrogate pairs hash the same as whole ones
+        buffer[position++] = (byte) (c >> 8);
+        buffer[position++] = (byte) c;
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingMessenger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A content addressed on-disk cache of parsed trees. Entries are keyed by the hash of the
+ * source path, the source bytes, the parser and protocol version and the nearest {@code tsconfig.json},
+ * so that an unchanged file can be served without contacting the Node server at all.
+ * <p>
+ * Trees are stored in the same CBOR format that is used on the wire. The total size of the
+ * cache directory is bounded and the least recently used entries are evicted first.
+ */
+public class JavaScriptLstCache {
+
+    /**
+     * Bump whenever the serialized form of a tree changes, so stale entries are never read back.
+     */
+    public static final int PROTOCOL_VERSION = 1;
+
+    private static final String EXTENSION = ".lst";
+    private static final String TSCONFIG = "tsconfig.json";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String version;
+    private final RemotingContext context;
+    private final CBORFactory factory = new CBORFactory();
+
+    /**
+     * Entry sizes in access order, so that iteration starts at the least recently used entry.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Path, String> tsconfigHashes = new ConcurrentHashMap<>();
+
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public JavaScriptLstCache(Path directory, long maxBytes, ClassLoader classLoader) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.version = PROTOCOL_VERSION + ":" + BuildVersion.VALUE;
+        this.context = new RemotingContext(classLoader, false);
+        load();
+    }
+
+    /**
+     * Computed on first use rather than by every cache, as hashing the class path of a development
+     * build walks its class directories. The class path does not change while the JVM runs.
+     */
+    private static class BuildVersion {
+        static final String VALUE = buildVersion();
+    }
+
+    /**
+     * The released version of the parser, or a hash of the class path for development and snapshot
+     * builds, whose trees can change without the version changing.
+     */
+    private static String buildVersion() {
+        String parserVersion = JavaScriptLstCache.class.getPackage().getImplementationVersion();
+        if (parserVersion != null && !parserVersion.endsWith("-SNAPSHOT")) {
+            return parserVersion;
+        }
+        List<Path> classPath = new ArrayList<>();
+        try {
+            classPath.add(Paths.get(JavaScriptLstCache.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        } catch (Exception ignored) {
+            // only the class path of the JVM is hashed
+        }
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                classPath.add(Paths.get(entry));
+            }
+        }
+        return "build-" + classPathHash(classPath);
+    }
+
+    /**
+     * Hash the names, sizes and modification times of the class path entries and of the class files
+     * in directory entries, which is cheap compared to hashing their contents.
+     */
+    static String classPathHash(List<Path> classPath) {
+        MessageDigest digest = sha256();
+        for (Path entry : classPath) {
+            update(digest, entry.toAbsolutePath().normalize());
+            if (Files.isDirectory(entry)) {
+                try (Stream<Path> files = Files.walk(entry)) {
+                    files.filter(file -> file.toString().endsWith(".class")).sorted().forEach(file -> update(digest, file));
+                } catch (IOException | UncheckedIOException ignored) {
+                    // hashed as far as it could be walked
+                }
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) {
+        digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        try {
+            digest.update((Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis())
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+            // a missing entry only contributes its name
+        }
+        digest.update((byte) 0);
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).forEach(existing::add);
+            }
+            // oldest first, so that the access order of the map matches the on-disk recency
+            existing.sort(Comparator.comparing(JavaScriptLstCache::lastModified));
+            for (Path entry : existing) {
+                long size = Files.size(entry);
+                String name = entry.getFileName().toString();
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                totalBytes += size;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compute the cache key of an input. The source is read in full, so this should be
+     * called at most once per input.
+     */
+    public String key(Parser.Input input, @Nullable Path relativeTo, ExecutionContext ctx) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(input.getRelativePath(relativeTo).toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (!input.isSynthetic()) {
+            digest.update(tsconfigHash(input.getPath().toAbsolutePath().getParent(), relativeTo)
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        try (InputStream is = input.getSource(ctx)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    public synchronized @Nullable SourceFile get(String key) {
+        Long size = entries.get(key);
+        if (size == null) {
+            misses++;
+            return null;
+        }
+        Path entry = entry(key);
+        try (CBORParser parser = factory.createParser(Files.newInputStream(entry))) {
+            context.reset();
+            SourceFile sourceFile = (SourceFile) RemotingMessenger.receiveTree(context, parser, null);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return sourceFile;
+        } catch (Exception e) {
+            // a truncated or otherwise unreadable entry is treated as a miss and dropped
+            remove(key);
+            misses++;
+            return null;
+        } finally {
+            context.reset();
+        }
+    }
+
+    public synchronized void put(String key, SourceFile sourceFile) {
+        Path entry = entry(key);
+        Path tmp = directory.resolve(key + ".tmp");
+        try {
+            try (CBORGenerator generator = factory.createGenerator(Files.newOutputStream(tmp))) {
+                context.reset();
+                RemotingMessenger.sendTree(context, generator, sourceFile, null);
+            } finally {
+                context.reset();
+            }
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(entry);
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            evict();
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> lru = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && lru.hasNext()) {
+            Map.Entry<String, Long> eldest = lru.next();
+            lru.remove();
+            totalBytes -= eldest.getValue();
+            evictions++;
+            try {
+                Files.deleteIfExists(entry(eldest.getKey()));
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(entry(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getSizeInBytes() {
+        return totalBytes;
+    }
+
+    public synchronized void clear() {
+        for (String key : new ArrayList<>(entries.keySet())) {
+            remove(key);
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private String tsconfigHash(@Nullable Path dir, @Nullable Path relativeTo) throws IOException {
+        if (dir == null) {
+            return "";
+        }
+        String hash = tsconfigHashes.get(dir);
+        if (hash != null) {
+            return hash;
+        }
+        Path tsconfig = dir.resolve(TSCONFIG);
+        if (Files.isRegularFile(tsconfig)) {
+            hash = hex(sha256().digest(Files.readAllBytes(tsconfig)));
+        } else if (relativeTo != null && dir.equals(relativeTo.toAbsolutePath())) {
+            hash = "";
+        } else {
+            hash = tsconfigHash(dir.getParent(), relativeTo);
+        }
+        tsconfigHashes.put(dir, hash);
+        return hash;
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -17,42 +17,212 @@ package org.openrewrite.javascript.internal;
 
 import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * A cache of types by signature which may be shared by parallel parser workers and recipe threads.
+ * <p>
+ * The cache holds at most {@code maximumSize} entries. When it is full, the entries are evicted in
+ * insertion order, except that an entry which was read since it was last considered for eviction is
+ * given a second chance. With weak values, entries whose type is no longer referenced elsewhere are
+ * dropped by the garbage collector.
+ */
 public class JavaScriptTypeCache implements Cloneable {
+    private static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    private final int maximumSize;
+    private final boolean weakValues;
+
+    private ConcurrentHashMap<String, Entry> typeCache = new ConcurrentHashMap<>();
+    private Queue<Entry> evictionOrder = new ConcurrentLinkedQueue<>();
+    private AtomicInteger queued = new AtomicInteger();
+    private ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+    private LongAdder evictions = new LongAdder();
 
-    Map<Object, Object> typeCache = new HashMap<>();
+    public JavaScriptTypeCache() {
+        this(DEFAULT_MAXIMUM_SIZE, false);
+    }
+
+    /**
+     * @param maximumSize The number of entries above which the least recently inserted entries are evicted.
+     * @param weakValues  Whether the cache may drop types which are not referenced outside of it.
+     */
+    public JavaScriptTypeCache(int maximumSize, boolean weakValues) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.weakValues = weakValues;
+    }
 
     public <T> @Nullable T get(String signature) {
+        expungeCollected();
+        Entry entry = typeCache.get(signature);
+        Object value = entry == null ? null : entry.get();
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        entry.accessed = true;
+        hits.increment();
         //noinspection unchecked
-        return (T) typeCache.get(key(signature));
+        return (T) value;
     }
 
     public void put(String signature, Object o) {
-        typeCache.put(key(signature), o);
-    }
-
-    private Object key(String signature) {
-        return signature;
+        expungeCollected();
+        Entry[] created = new Entry[1];
+        typeCache.compute(signature, (k, existing) -> {
+            if (existing != null) {
+                existing.set(o, weakValues ? collected : null);
+                return existing;
+            }
+            return created[0] = new Entry(signature, o, weakValues ? collected : null);
+        });
+        if (created[0] != null) {
+            evictionOrder.add(created[0]);
+            if (queued.incrementAndGet() > 2 * maximumSize) {
+                // entries dropped by the garbage collector are only unlinked from the eviction order here
+                evictionOrder.removeIf(e -> e.removed);
+                queued.set(evictionOrder.size());
+            }
+            evictIfFull();
+        }
     }
 
     public void clear() {
         typeCache.clear();
+        evictionOrder.clear();
+        queued.set(0);
     }
 
     public int size() {
         return typeCache.size();
     }
 
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries removed because the cache was full or, with weak values, because
+     * their type was garbage collected.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void evictIfFull() {
+        while (typeCache.size() > maximumSize) {
+            Entry candidate = evictionOrder.poll();
+            if (candidate == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (candidate.removed) {
+                continue;
+            }
+            if (candidate.accessed) {
+                candidate.accessed = false;
+                evictionOrder.add(candidate);
+                queued.incrementAndGet();
+            } else if (typeCache.remove(candidate.signature, candidate)) {
+                candidate.removed = true;
+                evictions.increment();
+            }
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = ((WeakValue) reference).entry;
+            // a value replaced by a later put is not a reason to remove its entry
+            if (entry.weakValue == reference && typeCache.remove(entry.signature, entry)) {
+                entry.removed = true;
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * The copy shares no state with this cache, and starts with empty statistics. The entries are copied
+     * rather than shared copy-on-write, because they carry the eviction state of their cache, and their weak
+     * values are enqueued to the reference queue of the cache that created them. They are copied in eviction
+     * order without going through {@link #put(String, Object)}, as the copy never holds more of them than
+     * this cache does.
+     */
     @Override
     public JavaScriptTypeCache clone() {
         try {
             JavaScriptTypeCache clone = (JavaScriptTypeCache) super.clone();
-            clone.typeCache = new HashMap<>(this.typeCache);
+            clone.typeCache = new ConcurrentHashMap<>(typeCache.size());
+            clone.evictionOrder = new ConcurrentLinkedQueue<>();
+            clone.collected = new ReferenceQueue<>();
+            clone.hits = new LongAdder();
+            clone.misses = new LongAdder();
+            clone.evictions = new LongAdder();
+            for (Entry entry : evictionOrder) {
+                Object value = entry.get();
+                if (!entry.removed && value != null) {
+                    Entry copy = new Entry(entry.signature, value, weakValues ? clone.collected : null);
+                    copy.accessed = entry.accessed;
+                    clone.typeCache.put(entry.signature, copy);
+                    clone.evictionOrder.add(copy);
+                }
+            }
+            clone.queued = new AtomicInteger(clone.evictionOrder.size());
             return clone;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
     }
+
+    private static class Entry {
+        final String signature;
+
+        volatile @Nullable Object value;
+        volatile @Nullable WeakValue weakValue;
+        volatile boolean accessed;
+        volatile boolean removed;
+
+        Entry(String signature, Object value, @Nullable ReferenceQueue<Object> collected) {
+            this.signature = signature;
+            set(value, collected);
+        }
+
+        void set(Object value, @Nullable ReferenceQueue<Object> collected) {
+            if (collected == null) {
+                this.value = value;
+            } else {
+                this.weakValue = new WeakValue(value, collected, this);
+            }
+        }
+
+        @Nullable
+        Object get() {
+            WeakValue weak = weakValue;
+            return weak == null ? value : weak.get();
+        }
+    }
+
+    private static class WeakValue extends WeakReference<Object> {
+        final Entry entry;
+
+        WeakValue(Object referent, ReferenceQueue<Object> queue, Entry entry) {
+            super(referent, queue);
+            this.entry = entry;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypedTree;
+import org.openrewrite.javascript.JavaScriptVisitor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Types of trees parsed with lazy type attribution. In place of its type, every typed node carries a
+ * class type whose fully qualified name is a handle into the server session that parsed the tree.
+ * The handles are resolved in batches with a "resolve-types" request, whose response holds for every
+ * handle the tokens written by {@code typeTokens} of the TypeScript type mapping. Classes are resolved to
+ * the same name-only class types that eager attribution maps them to.
+ */
+public class JavaScriptTypeHandles {
+
+    static final String PREFIX = "@type-handle:";
+
+    private JavaScriptTypeHandles() {
+    }
+
+    /**
+     * @return The handle {@code type} stands for, or {@code null} if it is an attributed type.
+     */
+    public static @Nullable String handle(@Nullable JavaType type) {
+        if (type instanceof JavaType.FullyQualified) {
+            String fqn = ((JavaType.FullyQualified) type).getFullyQualifiedName();
+            if (fqn.startsWith(PREFIX)) {
+                return fqn;
+            }
+        }
+        return null;
+    }
+
+    public static Set<String> collect(SourceFile sourceFile) {
+        Set<String> handles = new LinkedHashSet<>();
+        new JavaScriptVisitor<Set<String>>() {
+            @Override
+            public J postVisit(J tree, Set<String> handles) {
+                if (tree instanceof TypedTree) {
+                    String handle = handle(((TypedTree) tree).getType());
+                    if (handle != null) {
+                        handles.add(handle);
+                    }
+                }
+                return tree;
+            }
+        }.visit(sourceFile, handles);
+        return handles;
+    }
+
+    /**
+     * Replace the handles in {@code sourceFile} with the types they were resolved to. Handles
+     * that are missing from {@code resolved} are replaced with {@code null}.
+     */
+    public static <S extends SourceFile> S replace(S sourceFile, Map<String, @Nullable JavaType> resolved) {
+        //noinspection unchecked
+        return (S) new JavaScriptVisitor<Integer>() {
+            @Override
+            public J postVisit(J tree, Integer p) {
+                if (tree instanceof TypedTree) {
+                    String handle = handle(((TypedTree) tree).getType());
+                    if (handle != null) {
+                        return ((TypedTree) tree).withType(resolved.get(handle));
+                    }
+                }
+                return tree;
+            }
+        }.visit(sourceFile, 0);
+    }
+
+    public static @Nullable JavaType read(CBORParser parser) throws IOException {
+        String tag = parser.nextTextValue();
+        if (tag == null) {
+            throw new IOException("Expected a type token but got " + parser.currentToken());
+        }
+        switch (tag) {
+            case "N":
+                return null;
+            case "P":
+                return JavaType.Primitive.values()[parser.nextIntValue(0)];
+            case "C":
+                return JavaType.ShallowClass.build(requireText(parser));
+            case "U":
+                int size = parser.nextIntValue(0);
+                List<JavaType> types = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    JavaType type = read(parser);
+                    types.add(type == null ? JavaType.Unknown.getInstance() : type);
+                }
+                return new JavaType.MultiCatch(types);
+            default:
+                return JavaType.Unknown.getInstance();
+        }
+    }
+
+    private static String requireText(CBORParser parser) throws IOException {
+        String text = parser.nextTextValue();
+        if (text == null) {
+            throw new IOException("Expected a fully qualified name but got " + parser.currentToken());
+        }
+        return text;
+    }
+}
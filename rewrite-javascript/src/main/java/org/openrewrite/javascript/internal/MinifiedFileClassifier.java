@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A cheap classifier for minified and bundled JavaScript, which is not worth parsing and type
+ * attributing. It looks at the file name, the file size, the length of the lines at the start
+ * of the file and a source map comment at its end, reading at most a few kilobytes per file.
+ */
+public class MinifiedFileClassifier {
+
+    private static final int HEAD_BYTES = 16 * 1024;
+    private static final int TAIL_BYTES = 512;
+
+    /**
+     * Files this small are never classified as minified, which saves the read for most sources.
+     */
+    private static final long MIN_SIZE = 2 * 1024;
+
+    /**
+     * No hand written source is expected to have a line this long.
+     */
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private static final int MAX_AVERAGE_LINE_LENGTH = 250;
+    private static final int MAX_AVERAGE_LINE_LENGTH_WITH_SOURCE_MAP = 120;
+
+    private MinifiedFileClassifier() {
+    }
+
+    public static boolean isMinified(Path path) {
+        String filename = path.getFileName().toString().toLowerCase();
+        if (filename.contains(".min.") || filename.contains(".bundle.") || filename.contains(".chunk.")) {
+            return true;
+        }
+
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (IOException e) {
+            return false;
+        }
+        if (size < MIN_SIZE) {
+            return false;
+        }
+
+        byte[] head = new byte[(int) Math.min(HEAD_BYTES, size)];
+        int read = 0;
+        try (InputStream is = Files.newInputStream(path)) {
+            int n;
+            while (read < head.length && (n = is.read(head, read, head.length - read)) != -1) {
+                read += n;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        int lines = 1;
+        int lineLength = 0;
+        for (int i = 0; i < read; i++) {
+            if (head[i] == '\n') {
+                lines++;
+                lineLength = 0;
+            } else if (++lineLength > MAX_LINE_LENGTH) {
+                return true;
+            }
+        }
+        int averageLineLength = read / lines;
+        if (averageLineLength > MAX_AVERAGE_LINE_LENGTH) {
+            return true;
+        }
+        return averageLineLength > MAX_AVERAGE_LINE_LENGTH_WITH_SOURCE_MAP && hasSourceMapComment(path, size);
+    }
+
+    private static boolean hasSourceMapComment(Path path, long size) {
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(TAIL_BYTES, size));
+            channel.position(size - tail.capacity());
+            while (tail.hasRemaining() && channel.read(tail) != -1) {
+                // read the whole tail
+            }
+            String text = new String(tail.array(), 0, tail.position(), StandardCharsets.UTF_8);
+            return text.contains("sourceMappingURL=");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadlines for parse requests. A request that misses its deadline has its socket closed, which fails
+ * the blocked read on the client side. The server cannot be interrupted while it is parsing and keeps
+ * working on the request, so every later request would miss its deadline too until the server process
+ * is replaced.
+ * <p>
+ * A request for a single file gets the per-file timeout and a batch gets a fixed timeout of its own, no
+ * matter how many files it holds. A file which missed its own deadline while no other request was in
+ * flight is remembered, so that it is not sent to the server again, neither on its own nor as part of a
+ * batch. A file that shared the server with other requests may just have waited for them, so it is not.
+ */
+public class ParseDeadlines implements AutoCloseable {
+
+    private final Duration timeoutPerFile;
+    private final Duration timeoutPerBatch;
+    private final Set<Path> timedOutFiles = ConcurrentHashMap.newKeySet();
+    private final Set<Deadline> armed = new HashSet<>();
+
+    private @Nullable ScheduledExecutorService scheduler;
+
+    public ParseDeadlines(Duration timeoutPerFile, Duration timeoutPerBatch) {
+        this.timeoutPerFile = timeoutPerFile;
+        this.timeoutPerBatch = timeoutPerBatch;
+    }
+
+    /**
+     * Start the deadline of a request for a single file.
+     */
+    public Deadline startFile() {
+        return new Deadline(millis(timeoutPerFile));
+    }
+
+    /**
+     * Start the deadline of a request for a batch of files.
+     */
+    public Deadline startBatch() {
+        return new Deadline(millis(timeoutPerBatch));
+    }
+
+    public Duration getTimeoutPerFile() {
+        return timeoutPerFile;
+    }
+
+    private static long millis(Duration timeout) {
+        return timeout.isZero() || timeout.isNegative() ? 0 : timeout.toMillis();
+    }
+
+    /**
+     * Record that {@code file} missed {@code deadline}, after which it is given up on for good unless
+     * other requests were in flight next to it.
+     */
+    public void recordTimeout(Path file, Deadline deadline) {
+        if (!deadline.isContended()) {
+            timedOutFiles.add(file);
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code file} missed its own deadline before.
+     */
+    public boolean hasTimedOut(Path file) {
+        return timedOutFiles.contains(file);
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rewrite-javascript-parse-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    @Override
+    public synchronized void close() {
+        timedOutFiles.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public class Deadline {
+        private final long timeoutMillis;
+        private final long started = System.nanoTime();
+
+        private @Nullable ScheduledFuture<?> expiry;
+        private volatile boolean expired;
+        private volatile boolean contended;
+
+        Deadline(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        /**
+         * Close {@code socket} once the deadline passes.
+         */
+        public void arm(Socket socket) {
+            synchronized (armed) {
+                if (!armed.isEmpty()) {
+                    contended = true;
+                    for (Deadline other : armed) {
+                        other.contended = true;
+                    }
+                }
+                armed.add(this);
+            }
+            if (timeoutMillis > 0) {
+                expiry = scheduler().schedule(() -> {
+                    expired = true;
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        public void disarm() {
+            synchronized (armed) {
+                armed.remove(this);
+            }
+            if (expiry != null) {
+                expiry.cancel(false);
+                expiry = null;
+            }
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * @return {@code true} if another request was in flight at some point while this one was.
+         */
+        public boolean isContended() {
+            return contended;
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(System.nanoTime() - started);
+        }
+
+        public Duration getTimeout() {
+            return Duration.ofMillis(timeoutMillis);
+        }
+    }
+}
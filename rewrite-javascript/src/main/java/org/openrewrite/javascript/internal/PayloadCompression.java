@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.openrewrite.Tree;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingMessenger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression of the trees a remoting server sends, which is agreed on once per connection. The client
+ * names the codec and the serialized size from which on trees are worth compressing. A server that
+ * accepts precedes every tree it sends on the connection with a marker, which is either {@code null}
+ * when the tree follows as is, or a byte string holding the deflated tree.
+ * <p>
+ * Compressing trades the server's and the client's CPU for smaller socket buffers and less data in
+ * flight. Below a few kilobytes the deflater costs more than copying the bytes saves, which is why
+ * small trees are not compressed.
+ */
+public class PayloadCompression {
+    public static final String CODEC = "deflate";
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private PayloadCompression() {
+    }
+
+    /**
+     * Receive a tree from a connection, which is preceded by a marker if the server agreed to compress its trees.
+     */
+    public static Tree receiveTree(RemotingContext context, CBORParser parser, boolean compressed) throws IOException {
+        return compressed ? receiveTree(context, parser) : RemotingMessenger.receiveTree(context, parser, null);
+    }
+
+    /**
+     * Receive a tree from a connection on which the server agreed to compress its trees.
+     */
+    public static Tree receiveTree(RemotingContext context, CBORParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return RemotingMessenger.receiveTree(context, parser, null);
+        }
+        try (CBORParser inflated = CBOR_FACTORY.createParser(inflate(parser.getBinaryValue()))) {
+            return RemotingMessenger.receiveTree(context, inflated, null);
+        }
+    }
+
+    /**
+     * Deflate with a zlib header, as the server does.
+     */
+    public static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static InputStream inflate(byte[] deflated) {
+        return new InflaterInputStream(new ByteArrayInputStream(deflated));
+    }
+}
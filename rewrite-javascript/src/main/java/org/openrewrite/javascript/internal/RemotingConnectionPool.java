@@ -0,0 +1,319 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingExecutionContextView;
+import org.openrewrite.remote.java.RemotingClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bounded pool of long-lived connections to a remoting server. Every pooled
+ * {@link RemotingClient} is bound to one socket which stays open between requests,
+ * so borrowing a connection does not pay for a TCP connect and handshake. Each connection
+ * receives into its own {@link RemotingContext}, so that requests on different connections
+ * can run at the same time.
+ * <p>
+ * Idle connections are health checked on a background thread instead of before
+ * every batch of inputs, keeping the round-trip off the parsing hot path. Dead connections are
+ * discarded, and the pool is only reported unhealthy once a fresh connection fails too. The check resets
+ * the server's side of a connection, so connections with a session-scoped type table are
+ * only checked for a closed socket, and a session is only forgotten along with its connection.
+ */
+public class RemotingConnectionPool implements AutoCloseable {
+
+    private final ExecutionContext ctx;
+    private final Class<?> clientType;
+    private final SocketFactory socketFactory;
+    private final int maxConnections;
+    private final Duration borrowTimeout;
+
+    private final BlockingQueue<Connection> idle;
+    private final AtomicInteger open = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+
+    private volatile boolean healthy = true;
+    private volatile boolean closed;
+
+    public RemotingConnectionPool(ExecutionContext ctx, Class<?> clientType, SocketFactory socketFactory,
+                                  int maxConnections, Duration borrowTimeout, Duration healthCheckInterval) {
+        this.ctx = ctx;
+        this.clientType = clientType;
+        this.socketFactory = socketFactory;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.borrowTimeout = borrowTimeout;
+        this.idle = new ArrayBlockingQueue<>(this.maxConnections);
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rewrite-javascript-connection-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        this.healthCheck.scheduleWithFixedDelay(this::checkIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection for the duration of {@code fn}. A connection whose request
+     * fails is assumed to be in an unknown protocol state and is closed rather than
+     * returned to the pool.
+     */
+    public <T> T withClient(Function<RemotingClient, T> fn) {
+        return withClient(ctx.getOnError(), fn);
+    }
+
+    /**
+     * Borrow a connection like {@link #withClient(Function)}, reporting the errors of the
+     * client to {@code onError} rather than to the context the pool was created with.
+     */
+    public <T> T withClient(Consumer<Throwable> onError, Function<RemotingClient, T> fn) {
+        return withSession(onError, (client, session) -> fn.apply(client));
+    }
+
+    /**
+     * Borrow a connection like {@link #withClient(Function)}, together with the session of objects
+     * received on it since the connection was last reset.
+     */
+    public <T> T withSession(BiFunction<RemotingClient, RemotingTypeSession, T> fn) {
+        return withSession(ctx.getOnError(), fn);
+    }
+
+    /**
+     * Borrow a connection like {@link #withSession(BiFunction)}, reporting the errors of the
+     * client to {@code onError} rather than to the context the pool was created with.
+     */
+    public <T> T withSession(Consumer<Throwable> onError, BiFunction<RemotingClient, RemotingTypeSession, T> fn) {
+        Connection connection = borrow();
+        connection.onError = onError;
+        boolean reusable = false;
+        try {
+            T result = fn.apply(connection.client, connection.session);
+            reusable = true;
+            return result;
+        } finally {
+            connection.onError = ctx.getOnError();
+            if (reusable && !closed && !connection.session.isFull()) {
+                release(connection);
+            } else {
+                discard(connection);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} once a background health check could not reach the server.
+     */
+    public boolean isHealthy() {
+        return healthy && !closed;
+    }
+
+    /**
+     * Synchronously verify that the server answers on a fresh or idle connection.
+     */
+    public boolean ping() {
+        try {
+            healthy = withSession((client, session) -> isAlive(client, session));
+        } catch (Exception e) {
+            healthy = false;
+        }
+        return healthy;
+    }
+
+    public int getOpenConnections() {
+        return open.get();
+    }
+
+    private Connection borrow() {
+        if (closed) {
+            throw new IllegalStateException("Connection pool has been closed");
+        }
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        while (true) {
+            int current = open.get();
+            if (current >= maxConnections) {
+                break;
+            }
+            if (open.compareAndSet(current, current + 1)) {
+                try {
+                    return new Connection();
+                } catch (RuntimeException e) {
+                    open.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        try {
+            connection = idle.poll(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a remoting connection", e);
+        }
+        if (connection == null) {
+            throw new IllegalStateException("Timed out after " + borrowTimeout.toMillis() +
+                                            "ms waiting for one of " + maxConnections + " remoting connections");
+        }
+        return connection;
+    }
+
+    private void release(Connection connection) {
+        if (!idle.offer(connection)) {
+            discard(connection);
+        }
+    }
+
+    private void discard(Connection connection) {
+        open.decrementAndGet();
+        connection.close();
+    }
+
+    /**
+     * Discard the idle connections that are dead. A single dead connection may just have been closed
+     * by a timeout, so the pool is only taken to be unhealthy when a fresh connection fails as well.
+     */
+    private void checkIdleConnections() {
+        List<Connection> checked = new ArrayList<>();
+        idle.drainTo(checked);
+        boolean anyDead = false;
+        for (Connection connection : checked) {
+            if (connection.isAlive()) {
+                release(connection);
+            } else {
+                anyDead = true;
+                discard(connection);
+            }
+        }
+        if (anyDead) {
+            healthy = isFreshConnectionAlive();
+        }
+    }
+
+    private boolean isFreshConnectionAlive() {
+        int current = open.get();
+        if (current >= maxConnections || !open.compareAndSet(current, current + 1)) {
+            // every connection is borrowed, and the requests on them tell whether the server is alive
+            return true;
+        }
+        Connection connection;
+        try {
+            connection = new Connection();
+        } catch (RuntimeException e) {
+            open.decrementAndGet();
+            return false;
+        }
+        if (connection.isAlive()) {
+            release(connection);
+            return true;
+        }
+        discard(connection);
+        return false;
+    }
+
+    private static boolean isAlive(RemotingClient client, RemotingTypeSession session) {
+        if (Boolean.TRUE.equals(session.getSupported())) {
+            // a reset would make the server forget the types the session refers to
+            return true;
+        }
+        try {
+            return client.runUsingSocket((socket, messenger) -> {
+                messenger.sendReset(socket);
+                return true;
+            });
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        healthCheck.shutdownNow();
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SocketFactory {
+        Socket connect() throws IOException;
+    }
+
+    private class Connection {
+        final RemotingClient client;
+        final RemotingTypeSession session;
+
+        /**
+         * Where the client reports its errors, which is the context of the call the connection is borrowed for.
+         */
+        volatile Consumer<Throwable> onError = ctx.getOnError();
+
+        @Nullable
+        Socket socket;
+
+        Connection() {
+            ExecutionContext connectionCtx = new InMemoryExecutionContext(t -> onError.accept(t));
+            RemotingExecutionContextView.view(connectionCtx)
+                    .setRemotingContext(new RemotingContext(clientType.getClassLoader(), false));
+            this.client = RemotingClient.create(connectionCtx, clientType, this::socket);
+            this.session = new RemotingTypeSession(clientType.getClassLoader());
+        }
+
+        private Socket socket() {
+            if (socket == null || socket.isClosed()) {
+                try {
+                    socket = socketFactory.connect();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return socket;
+        }
+
+        boolean isAlive() {
+            if (Boolean.TRUE.equals(session.getSupported())) {
+                return socket != null && !socket.isClosed();
+            }
+            return RemotingConnectionPool.isAlive(client, session);
+        }
+
+        void close() {
+            session.reset();
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+                socket = null;
+            }
+        }
+    }
+}
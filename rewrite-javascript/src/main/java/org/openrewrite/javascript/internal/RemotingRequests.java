@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tells apart the failures of requests which only some versions of the remoting server know. A server
+ * answers a request it has no handler for with an error naming the request as unknown, which is the only
+ * failure after which the client should stop sending the request. Any other failure, like a parse error
+ * or a broken connection, says nothing about what the server supports.
+ */
+public class RemotingRequests {
+    private static final Pattern UNKNOWN_REQUEST = Pattern.compile("(?i)\\b(unknown|unsupported|unrecognized) (command|request)\\b");
+
+    private RemotingRequests() {
+    }
+
+    /**
+     * @return {@code true} if {@code t} or one of its causes is the reply of a server which does not know the request.
+     */
+    public static boolean isUnknown(@Nullable Throwable t) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable cause = t; cause != null && seen.add(cause); cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && UNKNOWN_REQUEST.matcher(message).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
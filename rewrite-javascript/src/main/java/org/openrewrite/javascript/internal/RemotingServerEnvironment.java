@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+/**
+ * The environment variables which configure every parser of a remoting server started by the Java side,
+ * as they are read by {@code JavaScriptParser.Builder} in the server.
+ */
+public class RemotingServerEnvironment {
+
+    /**
+     * Asks the server to parse without a type checker.
+     */
+    public static final String SYNTAX_ONLY = "REWRITE_JAVASCRIPT_SYNTAX_ONLY";
+
+    /**
+     * Asks the server to represent types by handles that are attributed on demand.
+     */
+    public static final String LAZY_TYPES = "REWRITE_JAVASCRIPT_LAZY_TYPES";
+
+    /**
+     * Names the directory in which the server persists the declaration files it reads.
+     */
+    public static final String DECLARATION_CACHE = "REWRITE_JAVASCRIPT_DECLARATION_CACHE";
+
+    private RemotingServerEnvironment() {
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import lombok.Value;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup coordination with a freshly launched remoting server process. Instead of sleeping
+ * in fixed steps until a connection succeeds, the server is probed by connection attempts with
+ * a short, exponentially growing back-off. A server that prints a "listening on port" line to its
+ * standard output is taken to be ready as soon as it does, which the bundled server does not.
+ * <p>
+ * The server takes the port to listen on as an argument, so the port is picked here and can be
+ * taken by another process before the server binds it. A connection to the port then succeeds
+ * although the server never started listening, so a server is only taken to be ready once it is
+ * still running and answers a request on the port. A server that exits before it is ready, or that
+ * does not answer, is started again on another port.
+ */
+public class RemotingServerHandshake {
+
+    private static final Pattern LISTENING = Pattern.compile("(?i)listening on port (\\d+)");
+
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private static final int MAX_START_ATTEMPTS = 3;
+
+    private static final Set<Process> STARTED = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
+    private RemotingServerHandshake() {
+    }
+
+    /**
+     * Start a server and wait until it is ready. The process is destroyed when the JVM exits.
+     *
+     * @param processBuilder The configured process, whose standard output must not be redirected.
+     * @param command        The command line of a server listening on the given port.
+     * @param port           The port to listen on, or {@code 0} for a free port.
+     * @param timeout        How long to wait for each attempt to become ready.
+     * @param answers        Whether the server listening on a port answers a request which only it understands.
+     * @throws IOException If no attempt became ready.
+     */
+    public static Server start(ProcessBuilder processBuilder, IntFunction<List<String>> command, int port, Duration timeout,
+                               IntPredicate answers) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            int listening = port > 0 ? port : freePort();
+            Process process = processBuilder.command(command.apply(listening)).start();
+            try {
+                listening = awaitReady(process, listening, timeout);
+            } catch (IOException e) {
+                boolean exited = !process.isAlive();
+                process.destroy();
+                if (port <= 0 && exited && attempt < MAX_START_ATTEMPTS) {
+                    continue;
+                }
+                throw e;
+            }
+            // another process may have taken the port before the server could bind it, which a connection does not tell
+            if (process.isAlive() && answers.test(listening) && process.isAlive()) {
+                destroyOnExit(process);
+                return new Server(process, listening);
+            }
+            process.destroy();
+            if (port > 0 || attempt >= MAX_START_ATTEMPTS) {
+                throw new IOException("Remoting server did not answer on port " + listening);
+            }
+        }
+    }
+
+    /**
+     * Destroy {@code process} when the JVM exits, if it is still running by then. A single shutdown hook
+     * is registered for all processes, no matter how often servers are restarted.
+     */
+    public static void destroyOnExit(Process process) {
+        STARTED.removeIf(started -> !started.isAlive());
+        STARTED.add(process);
+        if (SHUTDOWN_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (Process started : STARTED) {
+                    if (started.isAlive()) {
+                        started.destroy();
+                    }
+                }
+            }, "rewrite-javascript-server-shutdown"));
+        }
+    }
+
+    /**
+     * @return a port that was free on the loopback interface at the time of the call.
+     */
+    public static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Wait until the server is ready to accept connections. The standard output of {@code process}
+     * must not be redirected, and is consumed by a daemon thread for the lifetime of the process.
+     *
+     * @param process The server process.
+     * @param port    The port the server was asked to listen on, or {@code 0} to rely on the port it reports.
+     * @param timeout How long to wait for the server to become ready.
+     * @return The port the server is listening on.
+     * @throws IOException If the server exits or does not become ready within {@code timeout}.
+     */
+    public static int awaitReady(Process process, int port, Duration timeout) throws IOException {
+        CompletableFuture<Integer> reported = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (!reported.isDone()) {
+                        Matcher matcher = LISTENING.matcher(line);
+                        if (matcher.find()) {
+                            reported.complete(Integer.parseInt(matcher.group(1)));
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+                // the process went away
+            }
+        }, "rewrite-javascript-server-output");
+        reader.setDaemon(true);
+        reader.start();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = 1;
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Remoting server exited with code " + process.exitValue() + " before it was ready");
+            }
+            try {
+                return reported.get(backoff, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (port > 0 && isListening(port)) {
+                    return port;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the remoting server", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+        throw new IOException("Remoting server was not ready after " + timeout.toMillis() + "ms");
+    }
+
+    public static boolean isListening(int port) {
+        try (Socket ignored = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Value
+    public static class Server {
+        Process process;
+        int port;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Installs the Node remoting server into a directory. The installation is stamped with
+ * a hash of the {@code package.json} it was installed from together with the resolved
+ * {@code package-lock.json}, and is skipped entirely as long as that stamp still matches.
+ * <p>
+ * In offline mode no {@code npm} command is run. Instead, a {@code node_modules} archive
+ * that was resolved at build time and shipped as a resource is unpacked.
+ */
+public class RemotingServerInstallation {
+
+    private static final String STAMP = ".rewrite-install.sha256";
+    private static final String PACKAGE_JSON = "package.json";
+    private static final String PACKAGE_LOCK_JSON = "package-lock.json";
+    private static final String NODE_MODULES = "node_modules";
+
+    private RemotingServerInstallation() {
+    }
+
+    /**
+     * @param classLoader                The class loader to read the resources from.
+     * @param packageJsonResource        The {@code package.json} resource describing the server.
+     * @param nodeModulesArchiveResource The zip archive holding a resolved {@code node_modules} directory
+     *                                   and its {@code package-lock.json}, used in offline mode.
+     * @param dir                        The installation directory.
+     * @param offline                    Whether to unpack the archive rather than running {@code npm}.
+     * @return {@code true} if the installation was (re-)created, {@code false} if it was already current.
+     * @throws IOException if {@code npm} fails to install the server.
+     */
+    public static boolean install(ClassLoader classLoader, String packageJsonResource, String nodeModulesArchiveResource,
+                                  Path dir, boolean offline) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+
+        byte[] packageJson = readResource(classLoader, packageJsonResource);
+        if (packageJson == null) {
+            throw new IllegalArgumentException("Cannot get resource \"" + packageJsonResource + "\" from Jar file.");
+        }
+        if (isCurrent(dir, packageJson)) {
+            return false;
+        }
+
+        Files.write(dir.resolve(PACKAGE_JSON), packageJson);
+        if (offline) {
+            try (InputStream archive = classLoader.getResourceAsStream(nodeModulesArchiveResource)) {
+                if (archive == null) {
+                    throw new IllegalStateException("Offline installation requires the resource \"" +
+                                                    nodeModulesArchiveResource + "\", which is not on the classpath.");
+                }
+                unzip(archive, dir);
+            }
+        } else {
+            Process process = new ProcessBuilder("npm", "update", "--force")
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .start();
+            // npm blocks once the pipe of its output is full, so the output is read until npm exits
+            String output = tail(process.getInputStream(), 4096);
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                // without the stamp, the next attempt runs the installation again
+                throw new IOException("npm update failed with exit code " + exitCode + " in " + dir + ":\n" + output);
+            }
+        }
+
+        Files.write(dir.resolve(STAMP), stamp(dir, packageJson).getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private static boolean isCurrent(Path dir, byte[] packageJson) throws IOException {
+        Path stamp = dir.resolve(STAMP);
+        if (!Files.isRegularFile(stamp) || !Files.isDirectory(dir.resolve(NODE_MODULES))) {
+            return false;
+        }
+        return new String(Files.readAllBytes(stamp), StandardCharsets.UTF_8).equals(stamp(dir, packageJson));
+    }
+
+    private static String stamp(Path dir, byte[] packageJson) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(packageJson);
+        digest.update((byte) 0);
+        Path lockFile = dir.resolve(PACKAGE_LOCK_JSON);
+        if (Files.isRegularFile(lockFile)) {
+            digest.update(Files.readAllBytes(lockFile));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void unzip(InputStream archive, Path dir) throws IOException {
+        Path root = dir.toAbsolutePath().normalize();
+        byte[] buffer = new byte[8192];
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Archive entry \"" + entry.getName() + "\" is outside of " + root);
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    int n;
+                    while ((n = zip.read(buffer)) > 0) {
+                        out.write(buffer, 0, n);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read {@code in} to its end, keeping only its last {@code limit} bytes.
+     */
+    private static String tail(InputStream in, int limit) throws IOException {
+        byte[] tail = new byte[limit];
+        byte[] buffer = new byte[4096];
+        int size = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            if (n >= limit) {
+                System.arraycopy(buffer, n - limit, tail, 0, limit);
+                size = limit;
+            } else {
+                int keep = Math.min(size, limit - n);
+                System.arraycopy(tail, size - keep, tail, 0, keep);
+                System.arraycopy(buffer, 0, tail, keep, n);
+                size = keep + n;
+            }
+        }
+        return new String(tail, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private static byte @Nullable [] readResource(ClassLoader classLoader, String resourceName) throws IOException {
+        try (InputStream stream = classLoader.getResourceAsStream(resourceName)) {
+            if (stream == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = stream.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypedTree;
+import org.openrewrite.javascript.JavaScriptVisitor;
+import org.openrewrite.remote.RemotingContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The remoting context of one pooled connection, which is kept between requests instead of being reset
+ * after every file. A server that agreed to a session-scoped type table sends every distinct type once
+ * per session and refers to it by id afterwards, so that the trees of all files parsed on the connection
+ * share the same type instances. Both sides forget the session when the connection is closed, which the
+ * pool does once a session has received {@link #MAX_TREES} trees, so that neither side's table grows without
+ * bound.
+ * <p>
+ * A session is only used by the thread that borrowed its connection.
+ */
+public class RemotingTypeSession {
+    static final int MAX_TREES = 1000;
+
+    private final ClassLoader classLoader;
+    private final Set<JavaType> receivedTypes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private @Nullable RemotingContext context;
+    private @Nullable Boolean supported;
+    private int trees;
+
+    public RemotingTypeSession(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public RemotingContext getContext() {
+        if (context == null) {
+            context = new RemotingContext(classLoader, false);
+        }
+        return context;
+    }
+
+    /**
+     * @return {@code null} until the server was asked whether it keeps a type table for the connection.
+     */
+    public @Nullable Boolean getSupported() {
+        return supported;
+    }
+
+    public void setSupported(boolean supported) {
+        this.supported = supported;
+    }
+
+    /**
+     * Count a tree received in this session.
+     */
+    public void received() {
+        trees++;
+    }
+
+    public int getTrees() {
+        return trees;
+    }
+
+    /**
+     * @return {@code true} once the connection should be replaced rather than receive more trees into this session.
+     */
+    public boolean isFull() {
+        return trees >= MAX_TREES;
+    }
+
+    /**
+     * Record the types of a tree received in this session, which costs a walk of the tree and is only
+     * done when the savings are reported.
+     *
+     * @return How many of its distinct types were already received with an earlier tree.
+     */
+    public Reuse record(SourceFile tree) {
+        Set<JavaType> types = Collections.newSetFromMap(new IdentityHashMap<>());
+        new JavaScriptVisitor<Set<JavaType>>() {
+            @Override
+            public J postVisit(J tree, Set<JavaType> types) {
+                if (tree instanceof TypedTree) {
+                    JavaType type = ((TypedTree) tree).getType();
+                    // primitives are constants on both sides and never part of the type table
+                    if (type != null && !(type instanceof JavaType.Primitive)) {
+                        types.add(type);
+                    }
+                }
+                return tree;
+            }
+        }.visit(tree, types);
+
+        int reused = 0;
+        long bytes = 0;
+        for (JavaType type : types) {
+            if (!receivedTypes.add(type)) {
+                reused++;
+                bytes += estimateSize(type);
+            }
+        }
+        return new Reuse(reused, bytes);
+    }
+
+    public void reset() {
+        if (context != null) {
+            context.reset();
+        }
+        receivedTypes.clear();
+        trees = 0;
+    }
+
+    /**
+     * A type is sent as its kind and flags followed by its name.
+     */
+    private static long estimateSize(JavaType type) {
+        long size = 8;
+        if (type instanceof JavaType.FullyQualified) {
+            size += ((JavaType.FullyQualified) type).getFullyQualifiedName().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    public static class Reuse {
+        private final int types;
+        private final long bytes;
+
+        Reuse(int types, long bytes) {
+            this.types = types;
+            this.bytes = bytes;
+        }
+
+        public int getTypes() {
+            return types;
+        }
+
+        /**
+         * @return An estimate of the bytes the reused types would have taken on the wire.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
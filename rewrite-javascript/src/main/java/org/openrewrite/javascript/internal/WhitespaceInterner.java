@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.openrewrite.java.tree.Comment;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.TextComment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of the whitespace and comment strings of received trees. Source code uses very few distinct
+ * indentations, so without the pool every prefix of every node holds its own copy of strings like
+ * {@code "\n    "}. Comment-free spaces are pooled as a whole, which also covers whitespace that is
+ * too long for the flyweights of {@link Space#build(String, List)}.
+ * <p>
+ * The pool is bounded in the number and length of the strings it holds, and strings beyond those
+ * bounds are returned unchanged. It is shared by every receiver of the class loader, so what it saved on
+ * the trees of one parse is told by a {@link Tally} of the thread which received them.
+ */
+public class WhitespaceInterner {
+    private static final WhitespaceInterner SHARED = new WhitespaceInterner(16_384, 256);
+
+    /**
+     * A compact string takes its object header, fields and array header in addition to one byte per character.
+     */
+    private static final int STRING_OVERHEAD = 40;
+    private static final int SPACE_SIZE = 24;
+
+    private final int maximumSize;
+    private final int maximumLength;
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Space> spaces = new ConcurrentHashMap<>();
+
+    private final LongAdder interned = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * The interned instances and saved bytes of the calling thread.
+     */
+    private final ThreadLocal<long[]> threadCounts = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * @param maximumSize   The number of strings and of spaces the pool holds at most.
+     * @param maximumLength The length above which strings are not pooled.
+     */
+    public WhitespaceInterner(int maximumSize, int maximumLength) {
+        this.maximumSize = maximumSize;
+        this.maximumLength = maximumLength;
+    }
+
+    /**
+     * @return The pool shared by all receivers of this class loader.
+     */
+    public static WhitespaceInterner shared() {
+        return SHARED;
+    }
+
+    public Space intern(Space space) {
+        List<Comment> comments = space.getComments();
+        String whitespace = space.getWhitespace();
+        if (comments.isEmpty()) {
+            if (whitespace.isEmpty() || whitespace.length() > maximumLength) {
+                return space;
+            }
+            Space pooled = spaces.get(whitespace);
+            if (pooled == null) {
+                if (spaces.size() >= maximumSize) {
+                    return space;
+                }
+                pooled = spaces.putIfAbsent(whitespace, space);
+                if (pooled == null) {
+                    return space;
+                }
+            }
+            if (pooled != space) {
+                count(SPACE_SIZE + (pooled.getWhitespace() != whitespace ? size(whitespace) : 0));
+            }
+            return pooled;
+        }
+
+        boolean changed = false;
+        String internedWhitespace = intern(whitespace);
+        if (internedWhitespace != whitespace) {
+            changed = true;
+        }
+        List<Comment> internedComments = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            Comment internedComment = comment;
+            if (comment instanceof TextComment) {
+                TextComment textComment = (TextComment) comment;
+                String text = intern(textComment.getText());
+                String suffix = intern(textComment.getSuffix());
+                if (text != textComment.getText() || suffix != textComment.getSuffix()) {
+                    internedComment = new TextComment(textComment.isMultiline(), text, suffix, textComment.getMarkers());
+                    changed = true;
+                }
+            }
+            internedComments.add(internedComment);
+        }
+        return changed ? Space.build(internedWhitespace, internedComments) : space;
+    }
+
+    public String intern(String s) {
+        if (s.isEmpty() || s.length() > maximumLength) {
+            return s;
+        }
+        String pooled = strings.get(s);
+        if (pooled == null) {
+            if (strings.size() >= maximumSize) {
+                return s;
+            }
+            pooled = strings.putIfAbsent(s, s);
+            if (pooled == null) {
+                return s;
+            }
+        }
+        if (pooled != s) {
+            count(size(s));
+        }
+        return pooled;
+    }
+
+    /**
+     * @return A tally of what the pool saved on the calling thread so far, which tells what it saved on a
+     * tree as the difference of the tallies before and after the tree was received.
+     */
+    public Tally tally() {
+        long[] counts = threadCounts.get();
+        return new Tally(counts[0], counts[1]);
+    }
+
+    /**
+     * @return The number of spaces and strings which were replaced by a pooled instance so far, on all threads.
+     */
+    public long getInterned() {
+        return interned.sum();
+    }
+
+    /**
+     * @return An estimate of the heap the replaced instances would have taken.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    private void count(long bytes) {
+        interned.increment();
+        savedBytes.add(bytes);
+        long[] counts = threadCounts.get();
+        counts[0]++;
+        counts[1] += bytes;
+    }
+
+    private static long size(String s) {
+        return STRING_OVERHEAD + s.length();
+    }
+
+    /**
+     * What the pool saved on one thread.
+     */
+    public static class Tally {
+        private final long interned;
+        private final long savedBytes;
+
+        Tally(long interned, long savedBytes) {
+            this.interned = interned;
+            this.savedBytes = savedBytes;
+        }
+
+        public long getInterned() {
+            return interned;
+        }
+
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        /**
+         * @return What the pool saved between {@code earlier} and this tally.
+         */
+        public Tally minus(Tally earlier) {
+            return new Tally(interned - earlier.interned, savedBytes - earlier.savedBytes);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.javascript.internal.RemotingStubServer;
+import org.openrewrite.javascript.markers.ParseTimeout;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.tree.ParseError;
+import org.openrewrite.tree.ParsingExecutionContextView;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the parser against a {@link RemotingStubServer} which answers with trees that print as their input,
+ * so that the requests the parser sends can be tested without a Node server.
+ */
+class JavaScriptParserRemotingTest {
+
+    @TempDir
+    Path dir;
+
+    RemotingStubServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new RemotingStubServer().parsing();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void parsesOneInputPerRequestByDefault() throws IOException {
+        JavaScriptParser parser = parser().build();
+
+        List<SourceFile> parsed = parser.parse(files("a", "b", "c"), null, new InMemoryExecutionContext()).toList();
+
+        assertThat(parsed).extracting(SourceFile::printAll).containsExactly("a", "b", "c");
+        assertThat(server.count("parse-files")).isZero();
+        assertThat(server.count("parse-file")).isEqualTo(3);
+    }
+
+    @Test
+    void parsesABatchInASingleRequest() throws IOException {
+        JavaScriptParser parser = parser().batchRequests(true).build();
+
+        List<SourceFile> parsed = parser.parse(files("a", "b", "c"), null, new InMemoryExecutionContext()).toList();
+
+        assertThat(parsed).allMatch(JS.CompilationUnit.class::isInstance);
+        assertThat(parsed).extracting(SourceFile::printAll).containsExactly("a", "b", "c");
+        assertThat(server.count("parse-files")).isEqualTo(1);
+        assertThat(server.count("parse-file")).isZero();
+    }
+
+    @Test
+    void parsesOneInputAtATimeOnceTheFirstBatchFailed() {
+        server.handle("parse-files", (request, response) -> {
+            throw new IllegalStateException("Cannot handle parse-files");
+        });
+        JavaScriptParser parser = parser().batchRequests(true).maxBatchSize(2).build();
+
+        List<SourceFile> parsed = parser.parse("a", "b", "c", "d").toList();
+
+        assertThat(parsed).extracting(SourceFile::printAll).containsExactly("a", "b", "c", "d");
+        assertThat(server.count("parse-files")).isEqualTo(1);
+        assertThat(server.count("parse-source")).isEqualTo(4);
+    }
+
+    @Test
+    void parsesOneInputAtATimeOnceTheServerDoesNotKnowBatches() {
+        server.forget("parse-files");
+        JavaScriptParser parser = parser().batchRequests(true).maxBatchSize(2).build();
+
+        List<SourceFile> parsed = parser.parse("a", "b", "c", "d").toList();
+
+        assertThat(parsed).extracting(SourceFile::printAll).containsExactly("a", "b", "c", "d");
+        assertThat(server.count("parse-files")).isEqualTo(1);
+        assertThat(server.count("parse-source")).isEqualTo(4);
+    }
+
+    @Test
+    void parsesAheadOfTheConsumer() throws Exception {
+        JavaScriptParser parser = parser().maxBatchSize(1).build();
+
+        Iterator<SourceFile> parsed = parser.parse(files("a", "b", "c"), null, new InMemoryExecutionContext()).iterator();
+        assertThat(parsed.next().printAll()).isEqualTo("a");
+
+        // the following batches are requested while the first one is consumed
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (server.count("parse-file") < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(server.count("parse-file")).isEqualTo(3);
+        assertThat(parsed.next().printAll()).isEqualTo("b");
+        assertThat(parsed.next().printAll()).isEqualTo("c");
+    }
+
+    @Test
+    void boundsTheBatchesParsedAheadOfInputsOfUnknownSize() throws Exception {
+        JavaScriptParser parser = parser().maxBatchSize(1).build();
+        String[] sources = new String[20];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = "s" + i;
+        }
+
+        Iterator<SourceFile> parsed = parser.parse(sources).iterator();
+        assertThat(parsed.next().printAll()).isEqualTo("s0");
+        Thread.sleep(200);
+
+        assertThat(server.count("parse-source")).isLessThan(sources.length);
+        List<String> printed = new ArrayList<>();
+        parsed.forEachRemaining(sourceFile -> printed.add(sourceFile.printAll()));
+        assertThat(printed).hasSize(sources.length - 1);
+    }
+
+    @Test
+    void reportsEventsOnTheConsumersThread() throws IOException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        ParsingExecutionContextView.view(ctx).setParsingListener(new JavaScriptParsingEventListener() {
+            @Override
+            public void whitespaceInterned(Parser.Input input, long interned, long savedBytes) {
+                threads.add(Thread.currentThread().getName());
+            }
+        });
+
+        assertThat(parser().maxBatchSize(1).build().parse(files("a", "b", "c"), null, ctx).toList()).hasSize(3);
+
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void servesUnchangedFilesFromTheLstCache() throws IOException {
+        JavaScriptParser parser = parser().batchRequests(true).lstCache(dir.resolve("lst-cache"), Long.MAX_VALUE).build();
+        List<Path> files = files("a", "b");
+
+        assertThat(parser.parse(files, null, new InMemoryExecutionContext()).toList())
+          .extracting(SourceFile::printAll).containsExactly("a", "b");
+        assertThat(server.count("parse-files")).isEqualTo(1);
+
+        assertThat(parser.parse(files, null, new InMemoryExecutionContext()).toList())
+          .extracting(SourceFile::printAll).containsExactly("a", "b");
+        assertThat(server.count("parse-files")).isEqualTo(1);
+        assertThat(server.count("parse-file")).isZero();
+    }
+
+    @Test
+    void replacesTheServerConnectionsAfterATimeout() {
+        server.handle("parse-source", (request, response) -> {
+            request.nextTextValue();
+            Thread.sleep(Duration.ofSeconds(5).toMillis());
+        });
+        JavaScriptParser parser = parser().parseTimeout(Duration.ofMillis(200)).build();
+
+        SourceFile timedOut = parser.parse("a").findFirst().orElseThrow();
+        assertThat(timedOut).isInstanceOf(ParseError.class);
+        assertThat(timedOut.getMarkers().findFirst(ParseTimeout.class)).isPresent();
+        int connections = server.getConnections();
+
+        server.parsing();
+        assertThat(parser.parse("b").findFirst().orElseThrow().printAll()).isEqualTo("b");
+        assertThat(server.getConnections()).isGreaterThan(connections);
+    }
+
+    private JavaScriptParser.Builder parser() {
+        return JavaScriptParser.builder().serverPort(server.getPort());
+    }
+
+    private List<Path> files(String... sources) throws IOException {
+        List<Path> files = new ArrayList<>(sources.length);
+        for (String source : sources) {
+            files.add(Files.write(dir.resolve(source + ".ts"), source.getBytes(StandardCharsets.UTF_8)));
+        }
+        return files;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.SourceFile;
+import org.openrewrite.marker.SearchResult;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashingPrintOutputCaptureTest {
+
+    @Test
+    void hashesWhatIsWrittenToOutInPrintOrder() {
+        HashingPrintOutputCapture capture = new HashingPrintOutputCapture();
+        capture.append("a");
+        capture.out.append("b");
+        capture.append('c');
+        capture.out.append("d");
+
+        assertThat(capture.digest()).isEqualTo(HashingPrintOutputCapture.hash("abcd"));
+    }
+
+    @Test
+    void hashesMarkersLikeTheirPrintedForm() {
+        SourceFile found = SearchResult.found(RemotingStubServer.compilationUnit(Paths.get("a.ts"), "a"));
+        assertThat(found.printAll()).contains("~~>");
+
+        assertThat(HashingPrintOutputCapture.hash(found)).isEqualTo(HashingPrintOutputCapture.hash(found.printAll()));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.marker.Markers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaScriptLstCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void servesAnEntryThatWasPut() {
+        JavaScriptLstCache cache = cache(dir, Long.MAX_VALUE);
+        SourceFile sourceFile = sourceFile("a.ts");
+
+        cache.put("a", sourceFile);
+
+        assertThat(cache.get("a")).isEqualTo(sourceFile);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntries() {
+        long entry = entrySize();
+        JavaScriptLstCache cache = cache(dir, 2 * entry + entry / 2);
+        cache.put("a", sourceFile("a.ts"));
+        cache.put("b", sourceFile("b.ts"));
+        assertThat(cache.get("a")).isNotNull();
+
+        cache.put("c", sourceFile("c.ts"));
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getSizeInBytes()).isEqualTo(2 * entry);
+        assertThat(dir.resolve("b.lst")).doesNotExist();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void rebuildsRecencyFromModificationTimes() throws IOException {
+        long entry = entrySize();
+        JavaScriptLstCache previousRun = cache(dir, Long.MAX_VALUE);
+        for (String key : new String[]{"a", "b", "c"}) {
+            previousRun.put(key, sourceFile(key + ".ts"));
+        }
+        // "b" was used longest ago, "a" most recently
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(dir.resolve("a.lst"), FileTime.fromMillis(now));
+        Files.setLastModifiedTime(dir.resolve("b.lst"), FileTime.fromMillis(now - 120_000));
+        Files.setLastModifiedTime(dir.resolve("c.lst"), FileTime.fromMillis(now - 60_000));
+
+        JavaScriptLstCache cache = cache(dir, 3 * entry + entry / 2);
+        assertThat(cache.getSizeInBytes()).isEqualTo(3 * entry);
+        cache.put("d", sourceFile("d.ts"));
+
+        assertThat(dir.resolve("b.lst")).doesNotExist();
+        assertThat(dir.resolve("a.lst")).exists();
+        assertThat(dir.resolve("c.lst")).exists();
+        assertThat(dir.resolve("d.lst")).exists();
+    }
+
+    @Test
+    void dropsACorruptedEntry() throws IOException {
+        Files.write(dir.resolve("a.lst"), "not a tree".getBytes(StandardCharsets.UTF_8));
+        JavaScriptLstCache cache = cache(dir, Long.MAX_VALUE);
+        assertThat(cache.getSizeInBytes()).isEqualTo(10);
+
+        assertThat(cache.get("a")).isNull();
+
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getSizeInBytes()).isZero();
+        assertThat(dir.resolve("a.lst")).doesNotExist();
+    }
+
+    @Test
+    void classPathHashChangesWithTheClasses() throws IOException {
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path parser = Files.write(classes.resolve("JavaScriptParser.class"), new byte[]{1, 2, 3});
+        Files.write(classes.resolve("package.json"), new byte[]{1});
+        List<Path> classPath = Collections.singletonList(classes);
+        String hash = JavaScriptLstCache.classPathHash(classPath);
+
+        assertThat(JavaScriptLstCache.classPathHash(classPath)).isEqualTo(hash);
+        Files.write(classes.resolve("package.json"), new byte[]{1, 2});
+        assertThat(JavaScriptLstCache.classPathHash(classPath)).isEqualTo(hash);
+
+        Files.write(parser, new byte[]{1, 2, 3, 4});
+        assertThat(JavaScriptLstCache.classPathHash(classPath)).isNotEqualTo(hash);
+    }
+
+    private long entrySize() {
+        JavaScriptLstCache cache = cache(dir.resolve("size"), Long.MAX_VALUE);
+        cache.put("x", sourceFile("x.ts"));
+        return cache.getSizeInBytes();
+    }
+
+    private static JavaScriptLstCache cache(Path dir, long maxBytes) {
+        return new JavaScriptLstCache(dir, maxBytes, JavaScriptLstCacheTest.class.getClassLoader());
+    }
+
+    private static SourceFile sourceFile(String path) {
+        return new JS.CompilationUnit(Tree.randomId(), Space.EMPTY, Markers.EMPTY, Paths.get(path), null, null,
+                false, null, Collections.emptyList(), Collections.emptyList(), Space.format("\n\n"));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaScriptTypeCacheTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        JavaScriptTypeCache cache = new JavaScriptTypeCache();
+        cache.put("Promise<string>", "promise");
+        assertThat(cache.<String>get("Promise<string>")).isEqualTo("promise");
+        assertThat(cache.<String>get("Map<string, number>")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsOldestUnreadEntryWhenFull() {
+        JavaScriptTypeCache cache = new JavaScriptTypeCache(2, false);
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.get("a");
+        cache.put("c", "c");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.<String>get("a")).isEqualTo("a");
+        assertThat(cache.<String>get("b")).isNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void clonesTheEntriesInEvictionOrder() {
+        JavaScriptTypeCache cache = new JavaScriptTypeCache(2, false);
+        cache.put("a", "a");
+        cache.put("b", "b");
+
+        JavaScriptTypeCache clone = cache.clone();
+        clone.put("c", "c");
+        cache.put("d", "d");
+
+        assertThat(clone.<String>get("a")).isNull();
+        assertThat(clone.<String>get("b")).isEqualTo("b");
+        assertThat(clone.<String>get("c")).isEqualTo("c");
+        assertThat(clone.<String>get("d")).isNull();
+        assertThat(cache.<String>get("b")).isEqualTo("b");
+        assertThat(cache.<String>get("c")).isNull();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.javascript.JavaScriptIsoVisitor;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.marker.Markers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaScriptTypeHandlesTest {
+    private static final String FIRST = JavaScriptTypeHandles.PREFIX + "5f3a9c01:0:0";
+    private static final String SECOND = JavaScriptTypeHandles.PREFIX + "5f3a9c01:0:1";
+
+    @Test
+    void tellsHandlesFromAttributedTypes() {
+        assertThat(JavaScriptTypeHandles.handle(JavaType.ShallowClass.build(FIRST))).isEqualTo(FIRST);
+        assertThat(JavaScriptTypeHandles.handle(JavaType.ShallowClass.build("Greeter"))).isNull();
+        assertThat(JavaScriptTypeHandles.handle(JavaType.Primitive.String)).isNull();
+        assertThat(JavaScriptTypeHandles.handle(null)).isNull();
+    }
+
+    @Test
+    void collectsEveryHandleOnce() {
+        JS.CompilationUnit cu = compilationUnit(
+          JavaType.ShallowClass.build(FIRST),
+          JavaType.ShallowClass.build(SECOND),
+          JavaType.ShallowClass.build(FIRST),
+          JavaType.Primitive.String);
+
+        assertThat(JavaScriptTypeHandles.collect(cu)).containsExactly(FIRST, SECOND);
+    }
+
+    @Test
+    void replacesHandlesWithTheResolvedTypes() {
+        JS.CompilationUnit cu = compilationUnit(
+          JavaType.ShallowClass.build(FIRST),
+          JavaType.ShallowClass.build(SECOND),
+          JavaType.Primitive.Boolean);
+        Map<String, @Nullable JavaType> resolved = new HashMap<>();
+        resolved.put(FIRST, JavaType.Primitive.String);
+
+        JS.CompilationUnit replaced = JavaScriptTypeHandles.replace(cu, resolved);
+
+        // a handle whose node has no type
+        assertThat(types(replaced)).containsExactly(JavaType.Primitive.String, null, JavaType.Primitive.Boolean);
+        assertThat(JavaScriptTypeHandles.collect(replaced)).isEmpty();
+    }
+
+    @Test
+    void readsTypeTokens() throws IOException {
+        CBORFactory factory = new CBORFactory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBORGenerator generator = factory.createGenerator(out)) {
+            generator.writeString("P");
+            generator.writeNumber(JavaType.Primitive.String.ordinal());
+            generator.writeString("C");
+            generator.writeString("Greeter");
+            generator.writeString("U");
+            generator.writeNumber(2);
+            generator.writeString("P");
+            generator.writeNumber(JavaType.Primitive.Double.ordinal());
+            generator.writeString("?");
+            generator.writeString("N");
+        }
+
+        try (CBORParser parser = factory.createParser(out.toByteArray())) {
+            assertThat(JavaScriptTypeHandles.read(parser)).isEqualTo(JavaType.Primitive.String);
+            assertThat(JavaScriptTypeHandles.read(parser))
+              .isInstanceOfSatisfying(JavaType.FullyQualified.class, c -> assertThat(c.getFullyQualifiedName()).isEqualTo("Greeter"));
+            assertThat(JavaScriptTypeHandles.read(parser))
+              .isInstanceOfSatisfying(JavaType.MultiCatch.class, u -> assertThat(u.getThrowableTypes())
+                .containsExactly(JavaType.Primitive.Double, JavaType.Unknown.getInstance()));
+            assertThat(JavaScriptTypeHandles.read(parser)).isNull();
+        }
+    }
+
+    private static JS.CompilationUnit compilationUnit(JavaType... types) {
+        List<JRightPadded<Statement>> statements = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            J.Identifier identifier = new J.Identifier(Tree.randomId(), Space.EMPTY, Markers.EMPTY, emptyList(),
+              "v" + i, types[i], null);
+            statements.add(JRightPadded.build(new JS.ExpressionStatement(Tree.randomId(), identifier)));
+        }
+        return new JS.CompilationUnit(Tree.randomId(), Space.EMPTY, Markers.EMPTY, Paths.get("handles.ts"), null, null,
+          false, null, emptyList(), statements, Space.EMPTY);
+    }
+
+    private static List<@Nullable JavaType> types(J tree) {
+        List<@Nullable JavaType> types = new ArrayList<>();
+        new JavaScriptIsoVisitor<List<@Nullable JavaType>>() {
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, List<@Nullable JavaType> types) {
+                types.add(identifier.getType());
+                return identifier;
+            }
+        }.visit(tree, types);
+        return types;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinifiedFileClassifierTest {
+
+    @Test
+    void minifiedByName(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("vendor.min.js"), "const a = 1;\n");
+        assertThat(MinifiedFileClassifier.isMinified(file)).isTrue();
+    }
+
+    @Test
+    void minifiedByLineLength(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("vendor.js"), "var a=1;".repeat(1_000));
+        assertThat(MinifiedFileClassifier.isMinified(file)).isTrue();
+    }
+
+    @Test
+    void bundleWithSourceMap(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("main.js"),
+          ("function a(){return b(1)+c(2)}".repeat(5) + "\n").repeat(100) +
+          "//# sourceMappingURL=main.js.map\n");
+        assertThat(MinifiedFileClassifier.isMinified(file)).isTrue();
+    }
+
+    @Test
+    void handWrittenSource(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("index.ts"),
+          "export function add(a: number, b: number): number {\n    return a + b;\n}\n".repeat(200));
+        assertThat(MinifiedFileClassifier.isMinified(file)).isFalse();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseDeadlinesTest {
+    private final ParseDeadlines deadlines = new ParseDeadlines(Duration.ofMillis(50), Duration.ofMinutes(10));
+
+    @AfterEach
+    void close() {
+        deadlines.close();
+    }
+
+    @Test
+    void batchDeadlineDoesNotGrowWithTheBatch() {
+        assertThat(deadlines.startFile().getTimeout()).isEqualTo(Duration.ofMillis(50));
+        assertThat(deadlines.startBatch().getTimeout()).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void closesTheSocketOnceExpired() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            ParseDeadlines.Deadline deadline = deadlines.startFile();
+            deadline.arm(socket);
+
+            long giveUp = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!socket.isClosed() && System.nanoTime() < giveUp) {
+                Thread.sleep(10);
+            }
+
+            assertThat(socket.isClosed()).isTrue();
+            assertThat(deadline.isExpired()).isTrue();
+        }
+    }
+
+    @Test
+    void disarmedDeadlineDoesNotExpire() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            ParseDeadlines.Deadline deadline = deadlines.startFile();
+            deadline.arm(socket);
+            deadline.disarm();
+
+            Thread.sleep(200);
+
+            assertThat(socket.isClosed()).isFalse();
+            assertThat(deadline.isExpired()).isFalse();
+        }
+    }
+
+    @Test
+    void zeroTimeoutDisablesTheDeadline() throws IOException {
+        ParseDeadlines disabled = new ParseDeadlines(Duration.ZERO, Duration.ZERO);
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            ParseDeadlines.Deadline deadline = disabled.startBatch();
+            deadline.arm(socket);
+
+            assertThat(deadline.getTimeout()).isEqualTo(Duration.ZERO);
+            assertThat(socket.isClosed()).isFalse();
+        } finally {
+            disabled.close();
+        }
+    }
+
+    @Test
+    void remembersFilesThatTimedOut() throws IOException {
+        Path slow = Paths.get("src/generated.ts");
+
+        assertThat(deadlines.hasTimedOut(slow)).isFalse();
+        deadlines.recordTimeout(slow, alone());
+        assertThat(deadlines.hasTimedOut(slow)).isTrue();
+        assertThat(deadlines.hasTimedOut(Paths.get("src/index.ts"))).isFalse();
+
+        deadlines.close();
+        assertThat(deadlines.hasTimedOut(slow)).isFalse();
+    }
+
+    @Test
+    void doesNotRememberFilesThatSharedTheServer() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 2, InetAddress.getLoopbackAddress());
+             Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            ParseDeadlines.Deadline slow = deadlines.startFile();
+            slow.arm(first);
+            ParseDeadlines.Deadline waiting = deadlines.startFile();
+            waiting.arm(second);
+            waiting.disarm();
+            slow.disarm();
+
+            deadlines.recordTimeout(Paths.get("src/waiting.ts"), waiting);
+
+            assertThat(slow.isContended()).isTrue();
+            assertThat(deadlines.hasTimedOut(Paths.get("src/waiting.ts"))).isFalse();
+        }
+    }
+
+    private ParseDeadlines.Deadline alone() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            ParseDeadlines.Deadline deadline = deadlines.startFile();
+            deadline.arm(socket);
+            deadline.disarm();
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.marker.Markers;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingMessenger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadCompressionTest {
+
+    @Test
+    void roundTrips() throws IOException {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            source.append("\n    const value").append(i).append(" = props.value;");
+        }
+        byte[] payload = source.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] deflated = PayloadCompression.deflate(payload);
+        assertThat(deflated.length).isLessThan(payload.length / 4);
+
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try (InputStream in = PayloadCompression.inflate(deflated)) {
+            byte[] buffer = new byte[1024];
+            for (int n; (n = in.read(buffer)) >= 0; ) {
+                inflated.write(buffer, 0, n);
+            }
+        }
+        assertThat(inflated.toByteArray()).isEqualTo(payload);
+    }
+
+    @Test
+    void receivesTreesAfterTheirCompressionMarker() throws IOException {
+        CBORFactory factory = new CBORFactory();
+        JS.CompilationUnit small = compilationUnit("small.ts");
+        JS.CompilationUnit large = compilationUnit("large.ts");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBORGenerator generator = factory.createGenerator(out)) {
+            // trees below the threshold follow a null marker as they are
+            generator.writeNull();
+            RemotingMessenger.sendTree(context(), generator, small, null);
+            generator.writeBinary(PayloadCompression.deflate(serialize(factory, large)));
+        }
+
+        try (CBORParser parser = factory.createParser(out.toByteArray())) {
+            RemotingContext receiving = context();
+            assertThat(PayloadCompression.receiveTree(receiving, parser, true))
+              .isInstanceOfSatisfying(JS.CompilationUnit.class, cu -> {
+                  assertThat(cu.getId()).isEqualTo(small.getId());
+                  assertThat(cu.getSourcePath()).isEqualTo(small.getSourcePath());
+              });
+            assertThat(PayloadCompression.receiveTree(receiving, parser, true))
+              .isInstanceOfSatisfying(JS.CompilationUnit.class, cu -> {
+                  assertThat(cu.getId()).isEqualTo(large.getId());
+                  assertThat(cu.getSourcePath()).isEqualTo(large.getSourcePath());
+              });
+        }
+    }
+
+    @Test
+    void receivesTreesWithoutMarkerWhenNotCompressing() throws IOException {
+        CBORFactory factory = new CBORFactory();
+        JS.CompilationUnit cu = compilationUnit("index.ts");
+
+        try (CBORParser parser = factory.createParser(serialize(factory, cu))) {
+            Tree received = PayloadCompression.receiveTree(context(), parser, false);
+            assertThat(received.getId()).isEqualTo(cu.getId());
+        }
+    }
+
+    private static byte[] serialize(CBORFactory factory, JS.CompilationUnit cu) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBORGenerator generator = factory.createGenerator(out)) {
+            RemotingMessenger.sendTree(context(), generator, cu, null);
+        }
+        return out.toByteArray();
+    }
+
+    private static RemotingContext context() {
+        return new RemotingContext(PayloadCompressionTest.class.getClassLoader(), false);
+    }
+
+    private static JS.CompilationUnit compilationUnit(String path) {
+        return new JS.CompilationUnit(Tree.randomId(), Space.EMPTY, Markers.EMPTY, Paths.get(path), null, null,
+          false, null, emptyList(), emptyList(), Space.format("\n"));
+    }
+}
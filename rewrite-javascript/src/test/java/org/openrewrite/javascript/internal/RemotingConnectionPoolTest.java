@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.remote.java.RemotingClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemotingConnectionPoolTest {
+    private RemotingConnectionPool pool = pool(1);
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    void reusesAReleasedConnection() {
+        RemotingClient first = pool.withClient(client -> client);
+        RemotingClient second = pool.withClient(client -> client);
+
+        assertThat(second).isSameAs(first);
+        assertThat(pool.getOpenConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void givesEveryConnectionItsOwnContext() {
+        pool.close();
+        pool = pool(2);
+
+        pool.withClient(outer -> pool.withClient(inner -> {
+            assertThat(inner).isNotSameAs(outer);
+            assertThat(inner.getContext()).isNotSameAs(outer.getContext());
+            return null;
+        }));
+        assertThat(pool.getOpenConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void timesOutWhenEveryConnectionIsBorrowed() {
+        assertThatThrownBy(() -> pool.withClient(outer -> pool.withClient(inner -> inner)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Timed out");
+    }
+
+    @Test
+    void discardsAConnectionWhoseRequestFailed() {
+        assertThatThrownBy(() -> pool.withClient(client -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        assertThat(pool.getOpenConnections()).isZero();
+    }
+
+    @Test
+    void rejectsBorrowingOnceClosed() {
+        pool.close();
+
+        assertThatThrownBy(() -> pool.withClient(client -> client))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("closed");
+        assertThat(pool.isHealthy()).isFalse();
+    }
+
+    @Test
+    void keepsTheSessionOfAnIdleConnectionAcrossHealthChecks() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            pool.close();
+            pool = new RemotingConnectionPool(new InMemoryExecutionContext(), RemotingConnectionPoolTest.class,
+                    () -> new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort()),
+                    1, Duration.ofMillis(100), Duration.ofMillis(10));
+            RemotingTypeSession session = pool.withSession((client, s) -> {
+                client.runUsingSocket((socket, messenger) -> socket);
+                s.setSupported(true);
+                s.received();
+                return s;
+            });
+
+            Thread.sleep(200);
+
+            assertThat(pool.withSession((client, s) -> s)).isSameAs(session);
+            assertThat(session.getTrees()).isEqualTo(1);
+            assertThat(pool.isHealthy()).isTrue();
+        }
+    }
+
+    @Test
+    void replacesTheConnectionOfAFullSession() {
+        RemotingClient first = pool.withSession((client, session) -> {
+            session.setSupported(true);
+            for (int i = 0; i < RemotingTypeSession.MAX_TREES; i++) {
+                session.received();
+            }
+            return client;
+        });
+
+        assertThat(pool.getOpenConnections()).isZero();
+        assertThat(pool.withSession((client, session) -> {
+            assertThat(session.getTrees()).isZero();
+            return client;
+        })).isNotSameAs(first);
+    }
+
+    @Test
+    void discardsADeadIdleConnectionWhileTheServerAnswersOnAFreshOne() throws Exception {
+        try (RemotingStubServer server = new RemotingStubServer()) {
+            pool.close();
+            pool = pool(server, Duration.ofMillis(10));
+            assertThat(pool.ping()).isTrue();
+
+            server.dropConnections();
+            Thread.sleep(200);
+
+            assertThat(pool.isHealthy()).isTrue();
+            assertThat(pool.getOpenConnections()).isEqualTo(1);
+            assertThat(server.getConnections()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void isUnhealthyOnceAFreshConnectionFailsToo() throws Exception {
+        RemotingStubServer server = new RemotingStubServer();
+        pool.close();
+        pool = pool(server, Duration.ofMillis(10));
+        assertThat(pool.ping()).isTrue();
+
+        server.close();
+        Thread.sleep(200);
+
+        assertThat(pool.isHealthy()).isFalse();
+    }
+
+    private static RemotingConnectionPool pool(RemotingStubServer server, Duration healthCheckInterval) {
+        return new RemotingConnectionPool(new InMemoryExecutionContext(), RemotingConnectionPoolTest.class,
+                () -> new Socket(InetAddress.getLoopbackAddress(), server.getPort()),
+                1, Duration.ofMillis(100), healthCheckInterval);
+    }
+
+    private static RemotingConnectionPool pool(int maxConnections) {
+        // connections only open their socket on the first request, which none of these tests send
+        return new RemotingConnectionPool(new InMemoryExecutionContext(), RemotingConnectionPoolTest.class,
+                () -> {
+                    throw new IOException("No server in this test");
+                }, maxConnections, Duration.ofMillis(100), Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.SocketException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemotingRequestsTest {
+
+    @Test
+    void unknownRequest() {
+        assertThat(RemotingRequests.isUnknown(new IllegalStateException("Unknown command: parse-files"))).isTrue();
+        assertThat(RemotingRequests.isUnknown(new IllegalArgumentException("unknown request 'session-types'"))).isTrue();
+    }
+
+    @Test
+    void unknownRequestAsCause() {
+        RuntimeException wrapped = new RuntimeException("Request failed",
+                new IllegalStateException("Unknown command: parse-files"));
+
+        assertThat(RemotingRequests.isUnknown(wrapped)).isTrue();
+    }
+
+    @Test
+    void otherFailures() {
+        assertThat(RemotingRequests.isUnknown(new IllegalStateException("Cannot read properties of undefined (reading 'kind')"))).isFalse();
+        assertThat(RemotingRequests.isUnknown(new UncheckedIOException(new SocketException("Connection reset")))).isFalse();
+        assertThat(RemotingRequests.isUnknown(new TimeoutException())).isFalse();
+        assertThat(RemotingRequests.isUnknown(null)).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisabledOnOs(OS.WINDOWS)
+class RemotingServerHandshakeTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void startsAgainOnAnotherPortWhenTheServerExits() throws IOException {
+        // the first attempt exits as if its port had been taken in the meantime
+        RemotingServerHandshake.Server server = RemotingServerHandshake.start(new ProcessBuilder().directory(dir.toFile()),
+                server("if [ -f started ]; then echo \"listening on port $0\"; sleep 30; else touch started; exit 1; fi"),
+                0, Duration.ofSeconds(10), port -> true);
+        try {
+            assertThat(server.getProcess().isAlive()).isTrue();
+            assertThat(server.getPort()).isPositive();
+        } finally {
+            server.getProcess().destroy();
+        }
+    }
+
+    @Test
+    void givesUpAfterThreeAttempts() throws IOException {
+        assertThatThrownBy(() -> RemotingServerHandshake.start(new ProcessBuilder().directory(dir.toFile()),
+                server("echo $0 >> attempts; exit 1"), 0, Duration.ofSeconds(10), port -> true))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exited");
+        assertThat(Files.readAllLines(dir.resolve("attempts"))).hasSize(3);
+    }
+
+    @Test
+    void doesNotRetryOnAFixedPort() throws IOException {
+        assertThatThrownBy(() -> RemotingServerHandshake.start(new ProcessBuilder().directory(dir.toFile()),
+                server("echo $0 >> attempts; exit 1"), 54999, Duration.ofSeconds(10), port -> true))
+                .isInstanceOf(IOException.class);
+        assertThat(Files.readAllLines(dir.resolve("attempts"))).containsExactly("54999");
+    }
+
+    @Test
+    void startsAgainOnAnotherPortWhenTheServerDoesNotAnswer() throws IOException {
+        // the first port is answered by another process, which took it before the server could bind it
+        List<Integer> asked = new ArrayList<>();
+        RemotingServerHandshake.Server server = RemotingServerHandshake.start(new ProcessBuilder().directory(dir.toFile()),
+                server("echo \"listening on port $0\"; sleep 30"), 0, Duration.ofSeconds(10), port -> {
+                    asked.add(port);
+                    return asked.size() > 1;
+                });
+        try {
+            assertThat(server.getProcess().isAlive()).isTrue();
+            assertThat(asked).hasSize(2).endsWith(server.getPort());
+        } finally {
+            server.getProcess().destroy();
+        }
+    }
+
+    @Test
+    void doesNotRetryAServerThatDoesNotAnswerOnAFixedPort() {
+        assertThatThrownBy(() -> RemotingServerHandshake.start(new ProcessBuilder().directory(dir.toFile()),
+                server("echo \"listening on port $0\"; sleep 30"), 54999, Duration.ofSeconds(10), port -> false))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("did not answer");
+    }
+
+    private static IntFunction<List<String>> server(String script) {
+        return port -> Arrays.asList("sh", "-c", script, Integer.toString(port));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemotingServerInstallationTest {
+
+    @Test
+    void offlineInstallationIsStampedAndSkippedWhenCurrent(@TempDir Path resources, @TempDir Path dir) throws Exception {
+        Files.writeString(resources.resolve("package.json"), "{\"name\":\"server\"}");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(resources.resolve("node_modules.zip")))) {
+            entry(zip, "node_modules/server/index.js", "module.exports = {}");
+            entry(zip, "package-lock.json", "{}");
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{resources.toUri().toURL()}, null)) {
+            assertThat(RemotingServerInstallation.install(classLoader, "package.json", "node_modules.zip", dir, true)).isTrue();
+            assertThat(dir.resolve("node_modules/server/index.js")).exists();
+            assertThat(dir.resolve("package-lock.json")).exists();
+
+            assertThat(RemotingServerInstallation.install(classLoader, "package.json", "node_modules.zip", dir, true)).isFalse();
+
+            // a changed lock file invalidates the stamp
+            Files.writeString(dir.resolve("package-lock.json"), "{\"changed\":true}");
+            assertThat(RemotingServerInstallation.install(classLoader, "package.json", "node_modules.zip", dir, true)).isTrue();
+        }
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JRightPadded;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.javascript.tree.JS;
+import org.openrewrite.marker.Markers;
+import org.openrewrite.remote.RemotingContext;
+import org.openrewrite.remote.RemotingMessenger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * A remoting server on a loopback port which answers requests from handlers registered per command,
+ * so that the parser can be tested without a Node server. A request is read as its message type, its
+ * command and the arguments of the command. A response is written as the message type, a status and
+ * either the payload of the handler or the error message, which for a command without a handler names
+ * it as unknown. Every connection is served by a thread of its own, and closed after an error.
+ */
+public class RemotingStubServer implements AutoCloseable {
+    public static final int REQUEST = 0;
+    public static final int RESPONSE = 1;
+    public static final int OK = 0;
+    public static final int ERROR = 1;
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "remoting-stub-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RemotingStubServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        handle("reset", (request, response) -> {
+        });
+        executor.execute(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public RemotingStubServer handle(String command, Handler handler) {
+        handlers.put(command, handler);
+        return this;
+    }
+
+    /**
+     * Answer {@code command} as unknown, as a server which does not implement it would.
+     */
+    public RemotingStubServer forget(String command) {
+        handlers.remove(command);
+        return this;
+    }
+
+    /**
+     * Answer "parse-source", "parse-file" and "parse-files" with trees that hold the parsed text
+     * as an identifier, which prints back to the text.
+     */
+    public RemotingStubServer parsing() {
+        handle("parse-source", (request, response) -> sendTree(response, null, request.nextTextValue()));
+        handle("parse-file", (request, response) -> {
+            String file = request.nextTextValue();
+            request.nextToken();
+            sendTree(response, file, null);
+        });
+        handle("parse-files", (request, response) -> {
+            request.nextToken();
+            int n = request.nextIntValue(-1);
+            List<String[]> inputs = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                inputs.add(new String[]{request.nextTextValue(), request.nextTextValue()});
+            }
+            for (String[] input : inputs) {
+                if ("file".equals(input[0])) {
+                    sendTree(response, input[1], null);
+                } else {
+                    sendTree(response, null, input[1]);
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * @return The commands received so far, in the order they were received.
+     */
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    public long count(String command) {
+        return commands.stream().filter(command::equals).count();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Close every connection accepted so far, as a server process that went away would.
+     */
+    public void dropConnections() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket; CBORParser request = CBOR_FACTORY.createParser(s.getInputStream())) {
+            OutputStream out = s.getOutputStream();
+            JsonToken token;
+            while ((token = request.nextToken()) != null) {
+                // the message type precedes the command
+                String command = token == JsonToken.VALUE_STRING ? request.getText() : request.nextTextValue();
+                commands.add(command);
+                Handler handler = handlers.get(command);
+                ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                String error = null;
+                if (handler == null) {
+                    error = "Unknown command: " + command;
+                } else {
+                    try (CBORGenerator response = CBOR_FACTORY.createGenerator(payload)) {
+                        handler.handle(request, response);
+                    } catch (Exception e) {
+                        error = String.valueOf(e.getMessage());
+                    }
+                }
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                try (CBORGenerator response = CBOR_FACTORY.createGenerator(header)) {
+                    response.writeNumber(RESPONSE);
+                    response.writeNumber(error == null ? OK : ERROR);
+                    if (error != null) {
+                        response.writeString(error);
+                    }
+                }
+                out.write(header.toByteArray());
+                if (error == null) {
+                    out.write(payload.toByteArray());
+                }
+                out.flush();
+                if (error != null) {
+                    // the arguments the handler did not read would be taken for the next request
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // the client closed the connection
+        }
+    }
+
+    private static void sendTree(CBORGenerator response, @Nullable String file, @Nullable String text) throws IOException {
+        Path sourcePath = file == null ? Paths.get("source.ts") : Paths.get(file).getFileName();
+        String source = text == null ? new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8) : text;
+        RemotingMessenger.sendTree(new RemotingContext(RemotingStubServer.class.getClassLoader(), false), response,
+                compilationUnit(sourcePath, source), null);
+    }
+
+    /**
+     * @return A compilation unit which holds {@code source} as an identifier, so that it prints as {@code source}.
+     */
+    public static JS.CompilationUnit compilationUnit(Path sourcePath, String source) {
+        J.Identifier identifier = new J.Identifier(Tree.randomId(), Space.EMPTY, Markers.EMPTY, emptyList(),
+                source, null, null);
+        List<JRightPadded<Statement>> statements = new ArrayList<>();
+        statements.add(JRightPadded.build(new JS.ExpressionStatement(Tree.randomId(), identifier)));
+        return new JS.CompilationUnit(Tree.randomId(), Space.EMPTY, Markers.EMPTY, sourcePath, null, null,
+                false, null, emptyList(), statements, Space.EMPTY);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Read the arguments of the request from {@code request} and write the payload of the response to
+         * {@code response}. A handler that throws is answered with an error.
+         */
+        void handle(CBORParser request, CBORGenerator response) throws Exception;
+    }
+}
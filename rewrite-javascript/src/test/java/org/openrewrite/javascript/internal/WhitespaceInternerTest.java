@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.javascript.internal;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.TextComment;
+import org.openrewrite.marker.Markers;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WhitespaceInternerTest {
+
+    @Test
+    void poolsCommentFreeSpaces() {
+        WhitespaceInterner interner = new WhitespaceInterner(16, 256);
+        // longer than the whitespace Space.build() shares by itself
+        String whitespace = "\n" + String.join("", nCopies(120, " "));
+        Space first = interner.intern(Space.build(new String(whitespace), emptyList()));
+        Space second = interner.intern(Space.build(new String(whitespace), emptyList()));
+        assertThat(second).isSameAs(first);
+        assertThat(interner.getInterned()).isEqualTo(1);
+    }
+
+    @Test
+    void poolsCommentStrings() {
+        WhitespaceInterner interner = new WhitespaceInterner(16, 256);
+        Space first = interner.intern(commented());
+        Space second = interner.intern(commented());
+        TextComment firstComment = (TextComment) first.getComments().get(0);
+        TextComment secondComment = (TextComment) second.getComments().get(0);
+        assertThat(second.getWhitespace()).isSameAs(first.getWhitespace());
+        assertThat(secondComment.getText()).isSameAs(firstComment.getText());
+        assertThat(secondComment.getSuffix()).isSameAs(firstComment.getSuffix());
+        assertThat(interner.getSavedBytes()).isPositive();
+    }
+
+    @Test
+    void leavesStringsBeyondTheBoundsAlone() {
+        WhitespaceInterner interner = new WhitespaceInterner(1, 4);
+        String tooLong = new String("\n        ");
+        assertThat(interner.intern(tooLong)).isSameAs(tooLong);
+        interner.intern(" ");
+        String beyondSize = new String("\t");
+        assertThat(interner.intern(beyondSize)).isSameAs(beyondSize);
+        assertThat(interner.getInterned()).isZero();
+    }
+
+    @Test
+    void talliesOnlyWhatWasSavedOnTheCallingThread() throws InterruptedException {
+        WhitespaceInterner interner = new WhitespaceInterner(16, 256);
+        interner.intern(commented());
+        WhitespaceInterner.Tally before = interner.tally();
+
+        Thread other = new Thread(() -> interner.intern(commented()));
+        other.start();
+        other.join();
+        interner.intern(commented());
+
+        WhitespaceInterner.Tally saved = interner.tally().minus(before);
+        assertThat(saved.getInterned()).isEqualTo(3);
+        assertThat(interner.getInterned()).isEqualTo(7);
+    }
+
+    private static Space commented() {
+        return Space.build(new String("\n    "), singletonList(
+                new TextComment(false, new String(" note"), new String("\n    "), Markers.EMPTY)));
+    }
+}